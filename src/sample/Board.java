@@ -0,0 +1,243 @@
+package sample;
+
+import java.util.Arrays;
+
+// Headless N x N sliding puzzle board. Cells hold tile numbers, 0 is the empty cell.
+// Moves are expressed as the direction the empty cell travels.
+public final class Board {
+
+    public static final int UP = 0;
+    public static final int DOWN = 1;
+    public static final int LEFT = 2;
+    public static final int RIGHT = 3;
+    public static final int NONE = 4;
+
+    // Goal used by the game on its 3x3 board (snail order, empty cell in the middle)
+    public static final String GOAL_CONFIG = "123804765";
+
+    static final int[] ROW_DELTA = {-1, 1, 0, 0};
+    static final int[] COL_DELTA = {0, 0, -1, 1};
+
+    final int size;
+    final int[] cells;
+    int blank;
+
+    public Board(int size, int[] cells) {
+        if (size < 2 || cells.length != size * size) {
+            throw new IllegalArgumentException("Board needs " + size * size + " cells, got " + cells.length);
+        }
+        this.size = size;
+        this.cells = cells.clone();
+        this.blank = -1;
+        boolean[] seen = new boolean[cells.length];
+        for (int i = 0; i < cells.length; i++) {
+            int tile = cells[i];
+            if (tile < 0 || tile >= cells.length || seen[tile]) {
+                throw new IllegalArgumentException("Invalid or duplicate tile " + tile + " at cell " + i);
+            }
+            seen[tile] = true;
+            if (tile == 0) blank = i;
+        }
+    }
+
+    private Board(Board other) {
+        this.size = other.size;
+        this.cells = other.cells.clone();
+        this.blank = other.blank;
+    }
+
+    // Parses the game's configuration strings ("123864705"); digits beyond 9 use letters (base 36)
+    public static Board fromConfig(String config) {
+        int size = (int) Math.round(Math.sqrt(config.length()));
+        if (size * size != config.length()) {
+            throw new IllegalArgumentException("Configuration is not square: " + config);
+        }
+        int[] cells = new int[config.length()];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = Character.digit(config.charAt(i), 36);
+        }
+        return new Board(size, cells);
+    }
+
+    public String toConfig() {
+        if (cells.length > 36) {
+            throw new IllegalStateException("Board too large for a configuration string");
+        }
+        StringBuilder sb = new StringBuilder(cells.length);
+        for (int tile : cells) {
+            sb.append(Character.toUpperCase(Character.forDigit(tile, 36)));
+        }
+        return sb.toString();
+    }
+
+    // Goal in the game's snail order: tiles spiral clockwise from the top-left, the empty cell ends the spiral
+    public static Board snailGoal(int size) {
+        int[] cells = new int[size * size];
+        int top = 0, bottom = size - 1, left = 0, right = size - 1;
+        int tile = 1;
+        int last = cells.length;
+        while (tile < last) {
+            for (int c = left; c <= right && tile < last; c++) cells[top * size + c] = tile++;
+            top++;
+            for (int r = top; r <= bottom && tile < last; r++) cells[r * size + right] = tile++;
+            right--;
+            for (int c = right; c >= left && tile < last; c--) cells[bottom * size + c] = tile++;
+            bottom--;
+            for (int r = bottom; r >= top && tile < last; r--) cells[r * size + left] = tile++;
+            left++;
+        }
+        return new Board(size, cells);
+    }
+
+    // Classic goal: tiles in reading order, empty cell bottom-right
+    public static Board rowMajorGoal(int size) {
+        int[] cells = new int[size * size];
+        for (int i = 0; i < cells.length - 1; i++) cells[i] = i + 1;
+        return new Board(size, cells);
+    }
+
+    public Board copy() {
+        return new Board(this);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int blank() {
+        return blank;
+    }
+
+    public int tileAt(int index) {
+        return cells[index];
+    }
+
+    public int[] toArray() {
+        return cells.clone();
+    }
+
+    public boolean canMove(int dir) {
+        return target(size, blank, dir) >= 0;
+    }
+
+    public boolean move(int dir) {
+        int to = target(size, blank, dir);
+        if (to < 0) return false;
+        cells[blank] = cells[to];
+        cells[to] = 0;
+        blank = to;
+        return true;
+    }
+
+    // Direction the empty cell must travel so that the tile at index slides, or -1 if it is not adjacent
+    public int directionOf(int index) {
+        for (int dir = 0; dir < 4; dir++) {
+            if (target(size, blank, dir) == index) return dir;
+        }
+        return -1;
+    }
+
+    // Cell the empty cell at blank reaches when moving dir, or -1 if that leaves the board
+    static int target(int size, int blank, int dir) {
+        int row = blank / size + ROW_DELTA[dir];
+        int col = blank % size + COL_DELTA[dir];
+        if (row < 0 || col < 0 || row >= size || col >= size) return -1;
+        return row * size + col;
+    }
+
+    public static int opposite(int dir) {
+        return dir ^ 1;
+    }
+
+    // Permutation parity must match the parity of the empty cell's distance to its goal cell
+    public boolean isSolvable(Board goal) {
+        if (goal.size != size) return false;
+        int[] goalIndex = new int[cells.length];
+        for (int i = 0; i < cells.length; i++) goalIndex[goal.cells[i]] = i;
+        boolean[] visited = new boolean[cells.length];
+        int transpositions = 0;
+        for (int i = 0; i < cells.length; i++) {
+            if (visited[i]) continue;
+            int length = 0;
+            for (int j = i; !visited[j]; j = goalIndex[cells[j]]) {
+                visited[j] = true;
+                length++;
+            }
+            transpositions += length - 1;
+        }
+        int distance = Math.abs(blank / size - goal.blank / size) + Math.abs(blank % size - goal.blank % size);
+        return (transpositions & 1) == (distance & 1);
+    }
+
+    // Packed form: each cell gets bitsPerCell bits, cells never straddle a long
+    static int bitsPerCell(int size) {
+        return 32 - Integer.numberOfLeadingZeros(size * size - 1);
+    }
+
+    static int cellsPerWord(int size) {
+        return 64 / bitsPerCell(size);
+    }
+
+    static int packedWords(int size) {
+        int perWord = cellsPerWord(size);
+        return (size * size + perWord - 1) / perWord;
+    }
+
+    static void pack(int[] cells, int size, long[] out, int offset) {
+        int bits = bitsPerCell(size);
+        int perWord = 64 / bits;
+        int words = packedWords(size);
+        for (int w = 0; w < words; w++) {
+            long word = 0;
+            int end = Math.min(cells.length, (w + 1) * perWord);
+            for (int i = end - 1; i >= w * perWord; i--) {
+                word = (word << bits) | cells[i];
+            }
+            out[offset + w] = word;
+        }
+    }
+
+    // Returns the index of the empty cell
+    static int unpack(long[] in, int offset, int size, int[] cells) {
+        int bits = bitsPerCell(size);
+        int perWord = 64 / bits;
+        long mask = (1L << bits) - 1;
+        int blank = -1;
+        for (int i = 0; i < cells.length; i++) {
+            int tile = (int) ((in[offset + i / perWord] >>> ((i % perWord) * bits)) & mask);
+            cells[i] = tile;
+            if (tile == 0) blank = i;
+        }
+        return blank;
+    }
+
+    public long[] pack() {
+        long[] out = new long[packedWords(size)];
+        pack(cells, size, out, 0);
+        return out;
+    }
+
+    public static Board unpack(long[] packed, int size) {
+        int[] cells = new int[size * size];
+        unpack(packed, 0, size, cells);
+        return new Board(size, cells);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Board)) return false;
+        Board other = (Board) o;
+        return size == other.size && Arrays.equals(cells, other.cells);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(cells);
+    }
+
+    @Override
+    public String toString() {
+        return cells.length <= 36 ? toConfig() : Arrays.toString(cells);
+    }
+}
@@ -0,0 +1,374 @@
+package sample;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+// Memory-bounded A*. The open list lives off-heap as packed long records bucketed by f = g + h,
+// duplicates are detected with an open-addressing hash set of packed states, and nothing is
+// allocated past memoryCap: the search degrades (stops growing the closed list, then stops)
+// instead of running into an OutOfMemoryError.
+//
+// frontierOnly skips the closed list altogether. Nothing then detects duplicates, not even
+// among open nodes: only the immediate parent move is pruned, so every transposition is
+// expanded again and the open list grows with the number of paths, not of states. It is
+// meant for shallow searches where the set would cost more than it saves.
+public final class FrontierSolver {
+
+    public enum Status { SOLVED, UNSOLVABLE, MEMORY_LIMIT }
+
+    public static final class Result {
+        public final Status status;
+        public final int length;     // optimal move count, -1 when not solved
+        public final int firstMove;  // first move of the solution, or of the most promising node on MEMORY_LIMIT
+        public final byte[] moves;   // whole solution, null when the closed list was not kept
+        public final long expanded;
+        public final long peakBytes;
+
+        Result(Status status, int length, int firstMove, byte[] moves, long expanded, long peakBytes) {
+            this.status = status;
+            this.length = length;
+            this.firstMove = firstMove;
+            this.moves = moves;
+            this.expanded = expanded;
+            this.peakBytes = peakBytes;
+        }
+    }
+
+    private static final int CHUNK_BYTES = 1 << 16;
+    private static final int INITIAL_SET_CAPACITY = 1 << 12;
+
+    // Record meta word: g in bits 0-15, last move in bits 16-18, first move in bits 19-21,
+    // heuristic search state (Heuristic.state) in bits 32-63
+    private static final int LAST_SHIFT = 16;
+    private static final int FIRST_SHIFT = 19;
+    private static final int STATE_SHIFT = 32;
+
+    private final Heuristic heuristic;
+    private final long memoryCap;
+    private final boolean frontierOnly;
+
+    public FrontierSolver(Heuristic heuristic, long memoryCap, boolean frontierOnly) {
+        this.heuristic = heuristic;
+        this.memoryCap = memoryCap;
+        this.frontierOnly = frontierOnly;
+    }
+
+    public Result solve(Board start) {
+        Board goal = heuristic.goal();
+        if (!start.isSolvable(goal)) {
+            return new Result(Status.UNSOLVABLE, -1, Board.NONE, null, 0, 0);
+        }
+
+        int size = start.size;
+        int words = Board.packedWords(size);
+        long[] goalKey = goal.pack();
+        Budget budget = new Budget(memoryCap);
+        BucketQueue open = new BucketQueue(words + 1, budget);
+        StateSet closed = frontierOnly ? null : StateSet.create(words, budget);
+        boolean keepClosed = closed != null;
+
+        long[] node = new long[words + 1];
+        long[] child = new long[words + 1];
+        int[] cells = new int[size * size];
+
+        int startState = heuristic.state(start.cells);
+        int startH = heuristic.estimateOf(startState);
+        Board.pack(start.cells, size, node, 0);
+        node[words] = meta(0, Board.NONE, Board.NONE, startState);
+        if (!open.push(startH, node)) {
+            return new Result(Status.MEMORY_LIMIT, -1, Board.NONE, null, 0, budget.peak);
+        }
+
+        int bestH = startH;
+        int bestFirst = Board.NONE;
+        long expanded = 0;
+
+        while (true) {
+            int f = open.pop(node);
+            if (f < 0) {
+                return new Result(Status.UNSOLVABLE, -1, Board.NONE, null, expanded, budget.peak);
+            }
+            long meta = node[words];
+            int g = (int) (meta & 0xFFFF);
+            int last = (int) (meta >>> LAST_SHIFT) & 7;
+            int first = (int) (meta >>> FIRST_SHIFT) & 7;
+            int state = (int) (meta >>> STATE_SHIFT);
+
+            if (sameState(node, goalKey, words)) {
+                byte[] moves = closed != null ? tracePath(closed, node, last, g, size) : null;
+                return new Result(Status.SOLVED, g, first, moves, expanded, budget.peak);
+            }
+
+            if (keepClosed) {
+                int added = closed.add(node, last);
+                if (added == 0) continue;
+                if (added < 0) keepClosed = false; // out of budget: continue as frontier search
+            }
+            expanded++;
+
+            int blank = Board.unpack(node, 0, size, cells);
+            for (int dir = 0; dir < 4; dir++) {
+                if (last != Board.NONE && dir == Board.opposite(last)) continue;
+                int to = Board.target(size, blank, dir);
+                if (to < 0) continue;
+
+                int tile = cells[to];
+                cells[blank] = tile;
+                cells[to] = 0;
+                int childState = heuristic.advance(cells, state, tile, to, blank);
+                Board.pack(cells, size, child, 0);
+                cells[to] = tile;
+                cells[blank] = 0;
+
+                if (closed != null && closed.contains(child)) continue;
+
+                int childFirst = first == Board.NONE ? dir : first;
+                child[words] = meta(g + 1, dir, childFirst, childState);
+                int childH = heuristic.estimateOf(childState);
+                if (!open.push(g + 1 + childH, child)) {
+                    return new Result(Status.MEMORY_LIMIT, -1, bestFirst, null, expanded, budget.peak);
+                }
+                if (childH < bestH) {
+                    bestH = childH;
+                    bestFirst = childFirst;
+                }
+            }
+        }
+    }
+
+    private static long meta(int g, int last, int first, int state) {
+        return g | ((long) last << LAST_SHIFT) | ((long) first << FIRST_SHIFT) | ((long) state << STATE_SHIFT);
+    }
+
+    private static boolean sameState(long[] a, long[] b, int words) {
+        for (int i = 0; i < words; i++) {
+            if (a[i] != b[i]) return false;
+        }
+        return true;
+    }
+
+    // Walks parent links backwards from the goal; null if the closed list lost part of the path
+    private static byte[] tracePath(StateSet closed, long[] goalNode, int last, int length, int size) {
+        byte[] moves = new byte[length];
+        long[] key = Arrays.copyOf(goalNode, goalNode.length);
+        int[] cells = new int[size * size];
+        int move = last;
+        for (int i = length - 1; i >= 0; i--) {
+            if (move < 0 || move == Board.NONE) return null;
+            moves[i] = (byte) move;
+            int blank = Board.unpack(key, 0, size, cells);
+            int parentBlank = Board.target(size, blank, Board.opposite(move));
+            cells[blank] = cells[parentBlank];
+            cells[parentBlank] = 0;
+            Board.pack(cells, size, key, 0);
+            move = closed.moveOf(key);
+        }
+        return moves;
+    }
+
+    private static final class Budget {
+        final long cap;
+        long used;
+        long peak;
+
+        Budget(long cap) {
+            this.cap = cap;
+        }
+
+        boolean reserve(long bytes) {
+            if (used + bytes > cap) return false;
+            used += bytes;
+            peak = Math.max(peak, used);
+            return true;
+        }
+
+        void release(long bytes) {
+            used -= bytes;
+        }
+    }
+
+    // One LIFO stack of direct-buffer chunks per f value; emptied chunks are pooled for reuse
+    private static final class BucketQueue {
+        private final int recordLongs;
+        private final int chunkBytes;
+        private final Budget budget;
+        private final ArrayDeque<ByteBuffer> pool = new ArrayDeque<>();
+        private ByteBuffer[] top = new ByteBuffer[64];
+        private ArrayDeque<?>[] full = new ArrayDeque<?>[64];
+        private int minF = Integer.MAX_VALUE;
+
+        BucketQueue(int recordLongs, Budget budget) {
+            this.recordLongs = recordLongs;
+            this.chunkBytes = (CHUNK_BYTES / (recordLongs * 8)) * recordLongs * 8;
+            this.budget = budget;
+        }
+
+        boolean push(int f, long[] record) {
+            if (f >= top.length) {
+                int length = Math.max(top.length * 2, f + 1);
+                top = Arrays.copyOf(top, length);
+                full = Arrays.copyOf(full, length);
+            }
+            ByteBuffer chunk = top[f];
+            if (chunk == null || !chunk.hasRemaining()) {
+                ByteBuffer fresh = obtainChunk();
+                if (fresh == null) return false;
+                if (chunk != null) stack(f).push(chunk);
+                top[f] = fresh;
+                chunk = fresh;
+            }
+            for (int i = 0; i < recordLongs; i++) {
+                chunk.putLong(record[i]);
+            }
+            if (f < minF) minF = f;
+            return true;
+        }
+
+        // Returns the f value of the popped record, or -1 when the queue is empty
+        int pop(long[] record) {
+            for (int f = minF; f < top.length; f++) {
+                ByteBuffer chunk = top[f];
+                if (chunk == null) continue;
+                minF = f;
+                int position = chunk.position() - recordLongs * 8;
+                for (int i = 0; i < recordLongs; i++) {
+                    record[i] = chunk.getLong(position + i * 8);
+                }
+                chunk.position(position);
+                if (position == 0) {
+                    chunk.clear();
+                    pool.push(chunk);
+                    ArrayDeque<ByteBuffer> stack = stack(f);
+                    top[f] = stack.isEmpty() ? null : stack.pop();
+                }
+                return f;
+            }
+            minF = Integer.MAX_VALUE;
+            return -1;
+        }
+
+        @SuppressWarnings("unchecked")
+        private ArrayDeque<ByteBuffer> stack(int f) {
+            if (full[f] == null) full[f] = new ArrayDeque<ByteBuffer>();
+            return (ArrayDeque<ByteBuffer>) full[f];
+        }
+
+        private ByteBuffer obtainChunk() {
+            if (!pool.isEmpty()) return pool.pop();
+            if (!budget.reserve(chunkBytes)) return null;
+            try {
+                return ByteBuffer.allocateDirect(chunkBytes).order(ByteOrder.nativeOrder());
+            } catch (OutOfMemoryError e) {
+                budget.release(chunkBytes);
+                return null;
+            }
+        }
+    }
+
+    // Open-addressing set of packed states (linear probing), remembering the move that reached each one.
+    // An all-zero first word marks a free slot; a real board never packs to that.
+    private static final class StateSet {
+        private final int words;
+        private final Budget budget;
+        private long[] keys;
+        private byte[] moves;
+        private int mask;
+        private int count;
+
+        private StateSet(int words, Budget budget, int capacity) {
+            this.words = words;
+            this.budget = budget;
+            this.keys = new long[capacity * words];
+            this.moves = new byte[capacity];
+            this.mask = capacity - 1;
+        }
+
+        static StateSet create(int words, Budget budget) {
+            if (!budget.reserve(bytesFor(INITIAL_SET_CAPACITY, words))) return null;
+            return new StateSet(words, budget, INITIAL_SET_CAPACITY);
+        }
+
+        private static long bytesFor(long capacity, int words) {
+            return capacity * (words * 8L + 1);
+        }
+
+        // 1 if added, 0 if already present, -1 if the budget does not allow another entry
+        int add(long[] key, int move) {
+            int capacity = mask + 1;
+            if (count * 2 >= capacity && !grow() && count * 10 >= capacity * 9) {
+                return -1;
+            }
+            int slot = find(key);
+            if (keys[slot * words] != 0) return 0;
+            System.arraycopy(key, 0, keys, slot * words, words);
+            moves[slot] = (byte) move;
+            count++;
+            return 1;
+        }
+
+        boolean contains(long[] key) {
+            return keys[find(key) * words] != 0;
+        }
+
+        int moveOf(long[] key) {
+            int slot = find(key);
+            return keys[slot * words] != 0 ? moves[slot] : -1;
+        }
+
+        private int find(long[] key) {
+            int slot = hash(key, 0) & mask;
+            while (true) {
+                int base = slot * words;
+                if (keys[base] == 0) return slot;
+                boolean equal = true;
+                for (int i = 0; i < words && equal; i++) {
+                    equal = keys[base + i] == key[i];
+                }
+                if (equal) return slot;
+                slot = (slot + 1) & mask;
+            }
+        }
+
+        private int hash(long[] key, int offset) {
+            long h = 0x9E3779B97F4A7C15L;
+            for (int i = 0; i < words; i++) {
+                h ^= key[offset + i];
+                h *= 0xBF58476D1CE4E5B9L;
+                h ^= h >>> 31;
+            }
+            return (int) (h ^ (h >>> 32));
+        }
+
+        private boolean grow() {
+            int capacity = (mask + 1) * 2;
+            if (capacity <= 0) return false;
+            long bytes = bytesFor(capacity, words);
+            if (!budget.reserve(bytes)) return false;
+            long[] oldKeys = keys;
+            byte[] oldMoves = moves;
+            try {
+                keys = new long[capacity * words];
+                moves = new byte[capacity];
+            } catch (OutOfMemoryError e) {
+                keys = oldKeys;
+                moves = oldMoves;
+                budget.release(bytes);
+                return false;
+            }
+            int oldCapacity = mask + 1;
+            mask = capacity - 1;
+            for (int slot = 0; slot < oldCapacity; slot++) {
+                int base = slot * words;
+                if (oldKeys[base] == 0) continue;
+                int target = hash(oldKeys, base) & mask;
+                while (keys[target * words] != 0) target = (target + 1) & mask;
+                System.arraycopy(oldKeys, base, keys, target * words, words);
+                moves[target] = oldMoves[slot];
+            }
+            budget.release(bytesFor(oldCapacity, words));
+            return true;
+        }
+    }
+}
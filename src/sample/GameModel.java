@@ -0,0 +1,221 @@
+package sample;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// State of the level being played, independent of JavaFX. Every change is reported to the
+// listeners as an event; views decide when to redraw. The win check is an incremental count
+// of cells that differ from the goal, so a move costs O(1) whatever the board size.
+public final class GameModel {
+
+    public enum Status { PLAYING, WON, LOST }
+
+    public interface Listener {
+        // tile slid from cell from into cell to (the empty cell is now at from)
+        default void tileMoved(int tile, int from, int to) {
+        }
+
+        // moves, score or best score changed
+        default void statsChanged() {
+        }
+
+        default void timeChanged() {
+        }
+
+        default void statusChanged(Status status) {
+        }
+
+        // every cell may have changed
+        default void boardReset() {
+        }
+    }
+
+    private final List<Listener> listeners = new ArrayList<>();
+    private Board board = Board.fromConfig(Board.GOAL_CONFIG);
+    private Board goal = board.copy();
+    private int misplaced;
+    private int movesCount;
+    private int score;
+    private int bestScore;
+    private int elapsedTime;
+    private long pendingNanos; // Played time not yet counted as a whole second
+    private Status status = Status.PLAYING;
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    public void load(String config, String goalConfig, int movesCount, int score, int elapsedTime) {
+        restore(Board.fromConfig(config), Board.fromConfig(goalConfig), movesCount, score, bestScore, elapsedTime,
+                Status.PLAYING);
+    }
+
+    // Puts the model in an exact state, e.g. one received from a spectator stream
+    public void restore(Board board, Board goal, int movesCount, int score, int bestScore, int elapsedTime,
+                        Status status) {
+        if (board.size() != goal.size()) {
+            throw new IllegalArgumentException("Board and goal sizes differ: " + board + " / " + goal);
+        }
+        this.board = board.copy();
+        this.goal = goal.copy();
+        misplaced = 0;
+        for (int i = 0; i < board.cells.length; i++) {
+            if (board.cells[i] != goal.cells[i]) misplaced++;
+        }
+        this.movesCount = movesCount;
+        this.score = score;
+        this.bestScore = bestScore;
+        this.elapsedTime = elapsedTime;
+        this.pendingNanos = 0;
+        this.status = status;
+        updateBest();
+        for (Listener listener : listeners) {
+            listener.boardReset();
+            listener.statsChanged();
+            listener.timeChanged();
+            listener.statusChanged(status);
+        }
+    }
+
+    // Slides the tile at cell into the empty cell if they are adjacent
+    public boolean slide(int cell) {
+        int dir = board.directionOf(cell);
+        return dir >= 0 && move(dir);
+    }
+
+    public boolean move(int dir) {
+        if (status != Status.PLAYING || movesCount >= GameRules.MAX_MOVES) return false;
+        int from = board.blank;
+        int to = Board.target(board.size, from, dir);
+        if (to < 0) return false;
+
+        int tile = board.cells[to];
+        misplaced -= (goal.cells[from] != 0 ? 1 : 0) + (tile != goal.cells[to] ? 1 : 0);
+        board.move(dir);
+        misplaced += (tile != goal.cells[from] ? 1 : 0) + (goal.cells[to] != 0 ? 1 : 0);
+
+        movesCount++;
+        score += GameRules.MOVE_POINTS;
+        if (misplaced == 0) {
+            status = Status.WON;
+            score = GameRules.winScore(score, elapsedTime);
+        } else if (movesCount >= GameRules.MAX_MOVES) {
+            status = Status.LOST;
+            score = GameRules.loseScore(score);
+        }
+        updateBest();
+
+        for (Listener listener : listeners) {
+            listener.tileMoved(tile, to, from);
+            listener.statsChanged();
+            if (status != Status.PLAYING) listener.statusChanged(status);
+        }
+        return true;
+    }
+
+    public void tick() {
+        elapsedTime++;
+        for (Listener listener : listeners) listener.timeChanged();
+    }
+
+    // Adds measured play time. The part short of a whole second is kept, so stopping and
+    // restarting the clock (pause, demo, Continue) never loses time
+    public void addTime(long nanos) {
+        if (status != Status.PLAYING || nanos <= 0) return;
+        pendingNanos += nanos;
+        while (pendingNanos >= 1_000_000_000L) {
+            pendingNanos -= 1_000_000_000L;
+            tick();
+        }
+    }
+
+    public long pendingNanos() {
+        return pendingNanos;
+    }
+
+    public long nanosToNextSecond() {
+        return 1_000_000_000L - pendingNanos;
+    }
+
+    public void setElapsedTime(int elapsedTime) {
+        this.pendingNanos = 0;
+        this.elapsedTime = elapsedTime;
+        for (Listener listener : listeners) listener.timeChanged();
+    }
+
+    public void setBestScore(int bestScore) {
+        this.bestScore = bestScore;
+        updateBest();
+        for (Listener listener : listeners) listener.statsChanged();
+    }
+
+    private void updateBest() {
+        if (score > bestScore) bestScore = score;
+    }
+
+    public Status status() {
+        return status;
+    }
+
+    public boolean isWon() {
+        return status == Status.WON;
+    }
+
+    public int movesCount() {
+        return movesCount;
+    }
+
+    public int movesLeft() {
+        return GameRules.MAX_MOVES - movesCount;
+    }
+
+    public int score() {
+        return score;
+    }
+
+    public int bestScore() {
+        return bestScore;
+    }
+
+    public int elapsedTime() {
+        return elapsedTime;
+    }
+
+    public int size() {
+        return board.size;
+    }
+
+    public int tileAt(int cell) {
+        return board.cells[cell];
+    }
+
+    public int blank() {
+        return board.blank;
+    }
+
+    // Copy for solvers and demos
+    public Board snapshot() {
+        return board.copy();
+    }
+
+    // Live boards for encoders that must not allocate; callers must not modify them
+    Board board() {
+        return board;
+    }
+
+    Board goal() {
+        return goal;
+    }
+
+    public String config() {
+        return board.toConfig();
+    }
+
+    public String goalConfig() {
+        return goal.toConfig();
+    }
+}
@@ -0,0 +1,31 @@
+package sample;
+
+// Move limit and scoring formula, shared by the game and the replay verifier
+public final class GameRules {
+
+    public static final int MAX_MOVES = 50;
+    public static final int MOVE_POINTS = 10;
+    public static final int WIN_BASE = 1000;
+    public static final int MAX_TIME_BONUS = 500;
+    public static final int TIME_BONUS_PER_SECOND = 5;
+    public static final int LOSE_PENALTY = 200;
+
+    // Shortest time a move can take: highlight plus slide animation in Main.swapTiles
+    public static final int MIN_MOVE_MILLIS = 400;
+
+    private GameRules() {
+    }
+
+    public static int timeBonus(int elapsedTime) {
+        return Math.max(0, MAX_TIME_BONUS - elapsedTime * TIME_BONUS_PER_SECOND);
+    }
+
+    // Score after the winning move, whose move points are replaced by the win reward
+    public static int winScore(int score, int elapsedTime) {
+        return score + WIN_BASE + timeBonus(elapsedTime) - MOVE_POINTS;
+    }
+
+    public static int loseScore(int score) {
+        return Math.max(0, score - LOSE_PENALTY);
+    }
+}
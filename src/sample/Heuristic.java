@@ -0,0 +1,29 @@
+package sample;
+
+// Admissible estimate of the number of moves left to reach goal()
+public interface Heuristic {
+
+    Board goal();
+
+    int estimate(int[] cells);
+
+    // Called after tile slid from cell from to cell to; h is the estimate before the slide
+    default int update(int[] cells, int h, int tile, int from, int to) {
+        return estimate(cells);
+    }
+
+    // Search state advanced once per move by the solvers. By default the state is
+    // the estimate itself; heuristics that need more than h to update in O(1) pack that
+    // context into the int instead
+    default int state(int[] cells) {
+        return estimate(cells);
+    }
+
+    default int advance(int[] cells, int state, int tile, int from, int to) {
+        return update(cells, state, tile, from, to);
+    }
+
+    default int estimateOf(int state) {
+        return state;
+    }
+}
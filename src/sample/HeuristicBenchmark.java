@@ -0,0 +1,69 @@
+package sample;
+
+import java.util.Random;
+
+// Compares IDA* under walking distance and under Manhattan distance on the same instances.
+//   HeuristicBenchmark [size] [instances] [scramble moves] [seed]
+// Instances are random walks from the snail goal that never undo their previous move.
+public final class HeuristicBenchmark {
+
+    private HeuristicBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int instances = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int scramble = args.length > 2 ? Integer.parseInt(args[2]) : 80;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 1;
+
+        Board goal = Board.snailGoal(size);
+        long buildStart = System.nanoTime();
+        WalkingDistance.prepare(goal);
+        System.out.printf("Walking distance tables for %dx%d built in %.1f ms%n",
+                size, size, (System.nanoTime() - buildStart) / 1e6);
+        WalkingDistance walking = new WalkingDistance(goal);
+        ManhattanHeuristic manhattan = new ManhattanHeuristic(goal);
+
+        Random random = new Random(seed);
+        long[] totalNodes = new long[2];
+        long[] totalNanos = new long[2];
+        System.out.println("  #  length   WD nodes     WD ms   MD nodes     MD ms   node ratio");
+        for (int n = 1; n <= instances; n++) {
+            Board start = scramble(goal, scramble, random);
+            IdaSolver.Result[] results = new IdaSolver.Result[2];
+            long[] nanos = new long[2];
+            Heuristic[] heuristics = {walking, manhattan};
+            for (int k = 0; k < 2; k++) {
+                long t0 = System.nanoTime();
+                results[k] = new IdaSolver(heuristics[k], Long.MAX_VALUE).solve(start);
+                nanos[k] = System.nanoTime() - t0;
+                totalNodes[k] += results[k].expanded;
+                totalNanos[k] += nanos[k];
+            }
+            if (results[0].length != results[1].length) {
+                throw new IllegalStateException("Solvers disagree on " + start + ": "
+                        + results[0].length + " vs " + results[1].length);
+            }
+            System.out.printf("%3d  %6d %10d %9.1f %10d %9.1f %12.1f%n", n, results[0].length,
+                    results[0].expanded, nanos[0] / 1e6, results[1].expanded, nanos[1] / 1e6,
+                    results[1].expanded / (double) Math.max(1, results[0].expanded));
+        }
+        System.out.printf("total       %10d %9.1f %10d %9.1f %12.1f%n", totalNodes[0], totalNanos[0] / 1e6,
+                totalNodes[1], totalNanos[1] / 1e6, totalNodes[1] / (double) Math.max(1, totalNodes[0]));
+    }
+
+    private static Board scramble(Board goal, int moves, Random random) {
+        Board board = goal.copy();
+        int last = Board.NONE;
+        for (int i = 0; i < moves; i++) {
+            int dir = random.nextInt(4);
+            if ((last != Board.NONE && dir == Board.opposite(last)) || !board.canMove(dir)) {
+                i--;
+                continue;
+            }
+            board.move(dir);
+            last = dir;
+        }
+        return board;
+    }
+}
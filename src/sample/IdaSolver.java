@@ -0,0 +1,102 @@
+package sample;
+
+import java.util.Arrays;
+
+// Iterative-deepening A*: depth-first passes under an f bound, raised after each pass to the
+// smallest f that exceeded it. Memory is the current path only. The heuristic is carried as
+// its incremental search state (Heuristic.advance), so every node costs O(1) to evaluate.
+public final class IdaSolver {
+
+    public enum Status { SOLVED, UNSOLVABLE, NODE_LIMIT }
+
+    public static final class Result {
+        public final Status status;
+        public final int length;     // optimal move count, -1 when not solved
+        public final int firstMove;  // Board.NONE when not solved or already at the goal
+        public final byte[] moves;   // whole solution, null when not solved
+        public final long expanded;
+
+        Result(Status status, int length, int firstMove, byte[] moves, long expanded) {
+            this.status = status;
+            this.length = length;
+            this.firstMove = firstMove;
+            this.moves = moves;
+            this.expanded = expanded;
+        }
+    }
+
+    private static final int FOUND = -1;
+    private static final int OVER_LIMIT = -2;
+
+    private final Heuristic heuristic;
+    private final long nodeLimit;
+
+    // Per solve
+    private int size;
+    private int[] cells;
+    private int[] goalCells;
+    private byte[] path;
+    private int length;
+    private long expanded;
+
+    public IdaSolver(Heuristic heuristic, long nodeLimit) {
+        this.heuristic = heuristic;
+        this.nodeLimit = nodeLimit;
+    }
+
+    public Result solve(Board start) {
+        Board goal = heuristic.goal();
+        if (!start.isSolvable(goal)) {
+            return new Result(Status.UNSOLVABLE, -1, Board.NONE, null, 0);
+        }
+        size = start.size;
+        cells = start.cells.clone();
+        goalCells = goal.cells;
+        expanded = 0;
+
+        int state = heuristic.state(cells);
+        int bound = heuristic.estimateOf(state);
+        while (true) {
+            path = new byte[bound + 1];
+            int next = search(start.blank, state, 0, bound, Board.NONE);
+            if (next == FOUND) {
+                byte[] moves = Arrays.copyOf(path, length);
+                return new Result(Status.SOLVED, length, length == 0 ? Board.NONE : moves[0], moves, expanded);
+            }
+            if (next == OVER_LIMIT) {
+                return new Result(Status.NODE_LIMIT, -1, Board.NONE, null, expanded);
+            }
+            bound = next;
+        }
+    }
+
+    // FOUND, OVER_LIMIT, or the smallest f above bound in this subtree
+    private int search(int blank, int state, int g, int bound, int last) {
+        int h = heuristic.estimateOf(state);
+        if (g + h > bound) return g + h;
+        if (h == 0 && Arrays.equals(cells, goalCells)) {
+            length = g;
+            return FOUND;
+        }
+        if (++expanded > nodeLimit) return OVER_LIMIT;
+
+        int min = Integer.MAX_VALUE;
+        for (int dir = 0; dir < 4; dir++) {
+            if (last != Board.NONE && dir == Board.opposite(last)) continue;
+            int to = Board.target(size, blank, dir);
+            if (to < 0) continue;
+
+            int tile = cells[to];
+            cells[blank] = tile;
+            cells[to] = 0;
+            path[g] = (byte) dir;
+            int t = search(to, heuristic.advance(cells, state, tile, to, blank), g + 1, bound, dir);
+            cells[to] = tile;
+            cells[blank] = 0;
+
+            if (t == FOUND || t == OVER_LIMIT) return t;
+            if (t < min) min = t;
+        }
+        return min;
+    }
+}
@@ -0,0 +1,51 @@
+package sample;
+
+import javafx.collections.ObservableListBase;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+// Read-only list of level labels for a virtualized ListView. Nothing is stored per level:
+// labels are produced a page at a time when the view asks for them, and only the most
+// recently used pages are kept.
+public final class LevelList extends ObservableListBase<String> {
+
+    private static final int PAGE_SIZE = 256;
+    private static final int CACHED_PAGES = 16;
+
+    private final int count;
+    private final IntFunction<String> labeler;
+    private final Map<Integer, String[]> pages = new LinkedHashMap<Integer, String[]>(CACHED_PAGES, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, String[]> eldest) {
+            return size() > CACHED_PAGES;
+        }
+    };
+
+    public LevelList(int count, IntFunction<String> labeler) {
+        this.count = count;
+        this.labeler = labeler;
+    }
+
+    @Override
+    public String get(int index) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Level " + index + " of " + count);
+        }
+        int pageNumber = index / PAGE_SIZE;
+        String[] page = pages.get(pageNumber);
+        if (page == null) {
+            int first = pageNumber * PAGE_SIZE;
+            page = new String[Math.min(PAGE_SIZE, count - first)];
+            for (int i = 0; i < page.length; i++) page[i] = labeler.apply(first + i);
+            pages.put(pageNumber, page);
+        }
+        return page[index % PAGE_SIZE];
+    }
+
+    @Override
+    public int size() {
+        return count;
+    }
+}
@@ -0,0 +1,248 @@
+package sample;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+// Level pack file, memory-mapped and decoded one level at a time.
+//
+// Layout (big-endian):
+//   header   magic "SLP1", version, board size, level count, record size and section offsets
+//   records  one fixed-width record per level: packed start board, packed goal board,
+//            optimal length (short, -1 if unknown), difficulty (byte, 0 if unknown), padding
+//   index    level count + 1 int offsets into the name heap
+//   names    UTF-8 level names
+// Boards are packed as consecutive bitsPerCell-bit fields, lowest bits first.
+public final class LevelPack {
+
+    private static final int MAGIC = 0x534C5031;
+    private static final short VERSION = 1;
+    private static final int HEADER_BYTES = 40;
+    private static final int MAX_BOARD_SIZE = 6; // Levels are base-36 config strings
+
+    public static final class Level {
+        public final String config;
+        public final String goal;
+        public final int optimalLength;
+        public final int difficulty;
+        public final String name;
+
+        public Level(String config, String goal, int optimalLength, int difficulty, String name) {
+            this.config = config;
+            this.goal = goal;
+            this.optimalLength = optimalLength;
+            this.difficulty = difficulty;
+            this.name = name == null ? "" : name;
+        }
+    }
+
+    private final ByteBuffer data;
+    private final int boardSize;
+    private final int boardBytes;
+    private final int count;
+    private final int recordBytes;
+    private final int recordsOffset;
+    private final int indexOffset;
+    private final int namesOffset;
+
+    private LevelPack(ByteBuffer data) throws IOException {
+        this.data = data;
+        if (data.capacity() < HEADER_BYTES || data.getInt(0) != MAGIC) {
+            throw new IOException("Not a level pack");
+        }
+        if (data.getShort(4) != VERSION) {
+            throw new IOException("Unsupported level pack version " + data.getShort(4));
+        }
+        boardSize = data.get(6);
+        boardBytes = boardBytes(boardSize);
+        count = data.getInt(8);
+        recordBytes = data.getInt(12);
+        recordsOffset = (int) data.getLong(16);
+        indexOffset = (int) data.getLong(24);
+        namesOffset = (int) data.getLong(32);
+        if (boardSize < 2 || boardSize > MAX_BOARD_SIZE || recordBytes < 2 * boardBytes + 3
+                || (long) recordsOffset + (long) count * recordBytes > indexOffset
+                || (long) indexOffset + (count + 1L) * 4 > namesOffset || namesOffset > data.capacity()) {
+            throw new IOException("Corrupt level pack header");
+        }
+    }
+
+    public static LevelPack open(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Level pack larger than 2 GB: " + file);
+            }
+            // The mapping stays valid after the channel is closed
+            return new LevelPack(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public int boardSize() {
+        return boardSize;
+    }
+
+    public String config(int index) {
+        return readBoard(record(index));
+    }
+
+    public String goal(int index) {
+        return readBoard(record(index) + boardBytes);
+    }
+
+    public int optimalLength(int index) {
+        return data.getShort(record(index) + 2 * boardBytes);
+    }
+
+    public int difficulty(int index) {
+        return data.get(record(index) + 2 * boardBytes + 2) & 0xFF;
+    }
+
+    public String name(int index) {
+        checkIndex(index);
+        int from = data.getInt(indexOffset + index * 4);
+        int to = data.getInt(indexOffset + (index + 1) * 4);
+        byte[] bytes = new byte[to - from];
+        for (int i = 0; i < bytes.length; i++) bytes[i] = data.get(namesOffset + from + i);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public Level level(int index) {
+        return new Level(config(index), goal(index), optimalLength(index), difficulty(index), name(index));
+    }
+
+    private int record(int index) {
+        checkIndex(index);
+        return recordsOffset + index * recordBytes;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Level " + index + " of " + count);
+        }
+    }
+
+    private String readBoard(int offset) {
+        int bits = Board.bitsPerCell(boardSize);
+        int mask = (1 << bits) - 1;
+        char[] chars = new char[boardSize * boardSize];
+        long buffer = 0;
+        int buffered = 0;
+        int next = offset;
+        for (int i = 0; i < chars.length; i++) {
+            while (buffered < bits) {
+                buffer |= (long) (data.get(next++) & 0xFF) << buffered;
+                buffered += 8;
+            }
+            chars[i] = Character.toUpperCase(Character.forDigit((int) (buffer & mask), 36));
+            buffer >>>= bits;
+            buffered -= bits;
+        }
+        return new String(chars);
+    }
+
+    static int boardBytes(int size) {
+        return (size * size * Board.bitsPerCell(size) + 7) / 8;
+    }
+
+    private static void writeBoard(String config, int size, byte[] out, int offset) {
+        int bits = Board.bitsPerCell(size);
+        long buffer = 0;
+        int buffered = 0;
+        int next = offset;
+        for (int i = 0; i < config.length(); i++) {
+            buffer |= (long) Character.digit(config.charAt(i), 36) << buffered;
+            buffered += bits;
+            while (buffered >= 8) {
+                out[next++] = (byte) buffer;
+                buffer >>>= 8;
+                buffered -= 8;
+            }
+        }
+        if (buffered > 0) out[next] = (byte) buffer;
+    }
+
+    // Streams levels into a new pack; the index and header are written on close()
+    public static final class Writer implements Closeable {
+        private final File file;
+        private final int boardSize;
+        private final int recordBytes;
+        private final DataOutputStream out;
+        private final ByteArrayOutputStream names = new ByteArrayOutputStream();
+        private final byte[] record;
+        private int[] nameOffsets = new int[1024];
+        private int count;
+
+        public Writer(File file, int boardSize) throws IOException {
+            if (boardSize < 2 || boardSize > MAX_BOARD_SIZE) {
+                throw new IllegalArgumentException("Board size must be 2 to " + MAX_BOARD_SIZE + ", got " + boardSize);
+            }
+            this.file = file;
+            this.boardSize = boardSize;
+            this.recordBytes = 2 * boardBytes(boardSize) + 4;
+            this.record = new byte[recordBytes];
+            this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16));
+            out.write(new byte[HEADER_BYTES]);
+        }
+
+        public void add(Level level) throws IOException {
+            Board start = Board.fromConfig(level.config);
+            Board goal = Board.fromConfig(level.goal);
+            if (start.size() != boardSize || goal.size() != boardSize) {
+                throw new IllegalArgumentException("Level is not " + boardSize + "x" + boardSize + ": " + level.config);
+            }
+            if (level.difficulty < 0 || level.difficulty > 255) {
+                throw new IllegalArgumentException("Difficulty must be 0 to 255, got " + level.difficulty);
+            }
+            // Names are one field of a tab-separated line in the text format
+            if (level.name.indexOf('\t') >= 0 || level.name.indexOf('\n') >= 0 || level.name.indexOf('\r') >= 0) {
+                throw new IllegalArgumentException("Level name contains a tab or line break: " + level.name);
+            }
+            int boardBytes = boardBytes(boardSize);
+            Arrays.fill(record, (byte) 0);
+            writeBoard(level.config, boardSize, record, 0);
+            writeBoard(level.goal, boardSize, record, boardBytes);
+            int optimal = Math.max(-1, Math.min(Short.MAX_VALUE, level.optimalLength));
+            record[2 * boardBytes] = (byte) (optimal >> 8);
+            record[2 * boardBytes + 1] = (byte) optimal;
+            record[2 * boardBytes + 2] = (byte) level.difficulty;
+            out.write(record);
+
+            names.write(level.name.getBytes(StandardCharsets.UTF_8));
+            if (count + 2 > nameOffsets.length) nameOffsets = Arrays.copyOf(nameOffsets, nameOffsets.length * 2);
+            count++;
+            nameOffsets[count] = names.size();
+        }
+
+        @Override
+        public void close() throws IOException {
+            long recordsOffset = HEADER_BYTES;
+            long indexOffset = recordsOffset + (long) count * recordBytes;
+            long namesOffset = indexOffset + (count + 1L) * 4;
+            for (int i = 0; i <= count; i++) out.writeInt(nameOffsets[i]);
+            names.writeTo(out);
+            out.close();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.BIG_ENDIAN);
+            header.putInt(MAGIC).putShort(VERSION).put((byte) boardSize).put((byte) 0)
+                    .putInt(count).putInt(recordBytes)
+                    .putLong(recordsOffset).putLong(indexOffset).putLong(namesOffset);
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                raf.write(header.array());
+            }
+        }
+    }
+}
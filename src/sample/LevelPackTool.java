@@ -0,0 +1,109 @@
+package sample;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+
+// Batch tooling for level packs.
+//   import <levels.txt> <pack.slp>   text -> pack, solving for missing optimal lengths
+//   export <pack.slp> <levels.txt>   pack -> text
+//   info <pack.slp>
+// Text lines are tab-separated: config, goal, optimal length, difficulty, name.
+// Only config is required; "-" or a missing field means default/unknown.
+public final class LevelPackTool {
+
+    private static final long SOLVER_MEMORY = 256L * 1024 * 1024;
+
+    private LevelPackTool() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 3 && args[0].equals("import")) {
+            importText(new File(args[1]), new File(args[2]));
+        } else if (args.length == 3 && args[0].equals("export")) {
+            exportText(new File(args[1]), new File(args[2]));
+        } else if (args.length == 2 && args[0].equals("info")) {
+            LevelPack pack = LevelPack.open(new File(args[1]));
+            System.out.println(pack.size() + " levels, " + pack.boardSize() + "x" + pack.boardSize());
+        } else {
+            System.err.println("Usage: LevelPackTool import <levels.txt> <pack.slp>");
+            System.err.println("       LevelPackTool export <pack.slp> <levels.txt>");
+            System.err.println("       LevelPackTool info <pack.slp>");
+        }
+    }
+
+    private static void importText(File text, File packFile) throws IOException {
+        LevelPack.Writer writer = null;
+        int lineNumber = 0;
+        try (BufferedReader reader = new BufferedReader(new FileReader(text))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.trim().isEmpty() || line.startsWith("#")) continue;
+                String[] fields = line.split("\t", -1);
+                try {
+                    Board start = Board.fromConfig(fields[0].trim());
+                    String goal = field(fields, 1);
+                    Board goalBoard = goal != null ? Board.fromConfig(goal) : Board.snailGoal(start.size());
+                    String optimalField = field(fields, 2);
+                    String difficultyField = field(fields, 3);
+                    int optimal = optimalField != null ? Integer.parseInt(optimalField) : solveLength(start, goalBoard);
+                    int difficulty = difficultyField != null ? Integer.parseInt(difficultyField) : difficultyOf(optimal);
+                    String name = fields.length > 4 ? fields[4] : "";
+
+                    if (writer == null) writer = new LevelPack.Writer(packFile, start.size());
+                    writer.add(new LevelPack.Level(start.toConfig(), goalBoard.toConfig(), optimal, difficulty, name));
+                } catch (IllegalArgumentException e) {
+                    System.err.println("Skipping line " + lineNumber + ": " + e.getMessage());
+                }
+            }
+        } finally {
+            if (writer != null) writer.close();
+        }
+        if (writer == null) {
+            System.err.println("No levels found in " + text);
+        }
+    }
+
+    private static void exportText(File packFile, File text) throws IOException {
+        LevelPack pack = LevelPack.open(packFile);
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(text))) {
+            for (int i = 0; i < pack.size(); i++) {
+                LevelPack.Level level = pack.level(i);
+                writer.write(level.config + "\t" + level.goal + "\t" + level.optimalLength + "\t"
+                        + level.difficulty + "\t" + textField(level.name));
+                writer.newLine();
+            }
+        }
+    }
+
+    // Packs from elsewhere may hold names the text format cannot; Writer.add rejects them
+    private static String textField(String value) {
+        return value.replace('\t', ' ').replace('\n', ' ').replace('\r', ' ');
+    }
+
+    private static String field(String[] fields, int index) {
+        if (index >= fields.length) return null;
+        String value = fields[index].trim();
+        return value.isEmpty() || value.equals("-") ? null : value;
+    }
+
+    // Optimal length when the search fits in SOLVER_MEMORY, -1 otherwise. Keeps the closed
+    // list: level searches are deep, and frontier-only mode would revisit every transposition
+    private static int solveLength(Board start, Board goal) {
+        if (start.size() > 4) return -1;
+        FrontierSolver.Result result = new FrontierSolver(new ManhattanHeuristic(goal), SOLVER_MEMORY, false).solve(start);
+        if (result.status == FrontierSolver.Status.UNSOLVABLE) {
+            throw new IllegalArgumentException("Level cannot reach its goal: " + start);
+        }
+        return result.length;
+    }
+
+    // 1 (easy) to 5 (hard) in steps of eight optimal moves, 0 when unknown
+    private static int difficultyOf(int optimal) {
+        return optimal < 0 ? 0 : 1 + Math.min(4, optimal / 8);
+    }
+}
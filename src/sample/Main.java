@@ -2,14 +2,16 @@ package sample;
 
 import javafx.animation.*;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.beans.binding.Bindings;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Node;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
-import javafx.scene.control.ComboBox;
+import javafx.scene.control.ListView;
 import javafx.scene.control.Label;
+import javafx.scene.control.Slider;
 import javafx.scene.effect.DropShadow;
 import javafx.scene.effect.Glow;
 import javafx.scene.layout.*;
@@ -20,14 +22,19 @@ import javafx.util.Duration;
 import java.io.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
 
 public class Main extends Application {
 
     private static final int GRID_SIZE = 3;
     private static final double BASE_TILE_SIZE = 80;
-    private static final int MAX_MOVES = 50;
+    private static final int MAX_MOVES = GameRules.MAX_MOVES;
     private static final String SAVE_FILE = "game_save.dat";
+    private static final String LEVEL_PACK_FILE = "levels.slp";
+    private static final long HINT_NODE_LIMIT = 20_000_000; // Cap for the optimal hint search
+    private static final double DEMO_MAX_SPEED_LOG = 4; // Demo slider goes from 10^0 to 10^4 moves/s
+    private static final double DEMO_MIN_SLIDE_SECONDS = 0.05; // Faster moves are applied without a slide
 
     private static int levelIndex = 0;
     private static boolean isWin = false;
@@ -40,6 +47,7 @@ public class Main extends Application {
     private final Label lblMovesLeft = new Label("Moves Left: 50");
     private final Label lblLevel = new Label("Level: 1");
     private final Label lblTime = new Label("Time: 0s");
+    private final Label lblDemoSpeed = new Label("Demo: 1 move/s");
 
     private final Button[][] tiles = new Button[GRID_SIZE][GRID_SIZE];
     private final GridPane gridPane = new GridPane();
@@ -55,13 +63,38 @@ public class Main extends Application {
             "624801753", "670132584", "781635240", "280163547"
     };
 
-    private int movesCount = 0;
-    private int score = 0;
-    private int bestScore = 0;
-    private String currentConfig = configurations[0];
+    private final GameModel model = new GameModel(); // Board, moves, score and time of the current level
     private String initialConfig = configurations[0];
+    private LevelPack levelPack; // Replaces the built-in configurations when LEVEL_PACK_FILE exists
     private Timeline timer;
-    private int elapsedTime = 0;
+    private long timerMark; // System.nanoTime() up to which play time has been given to the model
+
+    // Model events only set these flags; flushUi() applies them at most once per pulse
+    private AnimationTimer uiFlush;
+    private boolean uiFlushScheduled = false;
+    private boolean statsDirty = false;
+    private boolean timeDirty = false;
+    private boolean statusDirty = false;
+    private final boolean[] tileDirty = new boolean[GRID_SIZE * GRID_SIZE];
+    private final int[] dirtyTiles = new int[GRID_SIZE * GRID_SIZE];
+    private int dirtyTileCount = 0;
+
+    // Autoplay state; the demo plays on its own board and leaves the game state untouched
+    private boolean isDemo = false;
+    private AnimationTimer demoTimer;
+    private TranslateTransition demoSlide;
+    private Board demoBoard;
+    private byte[] demoMoves;
+    private int demoPosition;
+    private double demoBudget;
+    private long demoLastPulse;
+    private double demoSpeed = 1;
+
+    // Spectating: --broadcast=<port> publishes this game, --view=<host:port> watches one read-only
+    private SpectatorServer spectatorServer;
+    private SpectatorClient spectatorClient;
+    private boolean isViewer = false;
+    private String viewedAddress;
 
     // Variables to track stage properties
     private boolean isFullScreen = false;
@@ -81,6 +114,8 @@ public class Main extends Application {
         root.setTop(topControls);
         root.setCenter(createPuzzleGrid());
         root.setBottom(createStatsPanel());
+        bindModel();
+        model.load(initialConfig, Board.GOAL_CONFIG, 0, 0, 0);
 
         gameScene = new Scene(root, 600, 580);
         gameScene.getStylesheets().add(getClass().getResource("style.css").toExternalForm());
@@ -88,7 +123,20 @@ public class Main extends Application {
         primaryStage.setMinWidth(400);
         primaryStage.setMinHeight(500);
 
+        Map<String, String> options = getParameters().getNamed();
+        if (options.containsKey("view")) {
+            startViewer(options.get("view"));
+            return;
+        }
+
+        loadLevelPack();
         loadGameState();
+        if (GRID_SIZE <= WalkingDistance.MAX_SIZE) {
+            WalkingDistance.prepare(Board.fromConfig(model.goalConfig())); // Hint tables now, not on the first hint
+        }
+        if (options.containsKey("broadcast")) {
+            startBroadcast(options.get("broadcast"));
+        }
 
         Scene startMenuScene = createStartMenu();
 
@@ -101,6 +149,43 @@ public class Main extends Application {
         saveStageProperties();
     }
 
+    @Override
+    public void stop() {
+        if (spectatorServer != null) spectatorServer.close();
+        if (spectatorClient != null) spectatorClient.close();
+    }
+
+    private void startBroadcast(String port) {
+        try {
+            spectatorServer = new SpectatorServer(model, Integer.parseInt(port));
+            spectatorServer.start();
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Could not start spectator broadcast: " + e.getMessage());
+        }
+    }
+
+    // Read-only window that mirrors a broadcasting game
+    private void startViewer(String address) {
+        isViewer = true;
+        viewedAddress = address;
+        root.setTop(null);
+        puzzleGridPane.setMouseTransparent(true);
+        for (Node node : ((GridPane) root.getBottom()).getChildren()) {
+            if (!(node instanceof Label)) node.setDisable(true); // Demo controls
+        }
+        lblLevel.setText("Watching " + address);
+        try {
+            spectatorClient = SpectatorClient.connect(address, GRID_SIZE, model, Platform::runLater,
+                    reason -> lblLevel.setText("Disconnected: " + reason));
+        } catch (IllegalArgumentException e) {
+            lblLevel.setText("Bad address: " + address);
+        }
+
+        primaryStage.setTitle("Sliding Puzzle Game - Spectator");
+        primaryStage.setScene(gameScene);
+        primaryStage.show();
+    }
+
     // Helper methods to save and restore stage properties
     private void saveStageProperties() {
         isFullScreen = primaryStage.isFullScreen();
@@ -136,15 +221,18 @@ public class Main extends Application {
         private static final long serialVersionUID = 1L;
         String currentConfig;
         String initialConfig;
+        String goalConfig;
         int levelIndex;
         int score;
         int movesCount;
         int elapsedTime;
         int bestScore;
+        long pendingNanos; // Partial second of play; 0 in older saves
 
-        GameState(String currentConfig, String initialConfig, int levelIndex, int score, int movesCount, int elapsedTime, int bestScore) {
+        GameState(String currentConfig, String initialConfig, String goalConfig, int levelIndex, int score, int movesCount, int elapsedTime, int bestScore) {
             this.currentConfig = currentConfig;
             this.initialConfig = initialConfig;
+            this.goalConfig = goalConfig;
             this.levelIndex = levelIndex;
             this.score = score;
             this.movesCount = movesCount;
@@ -156,7 +244,10 @@ public class Main extends Application {
     private void saveGameState() {
         try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(SAVE_FILE))) {
             saveStageProperties();
-            GameState state = new GameState(currentConfig, initialConfig, levelIndex, score, movesCount, elapsedTime, bestScore);
+            if (timer != null) sampleTime();
+            GameState state = new GameState(model.config(), initialConfig, model.goalConfig(), levelIndex,
+                    model.score(), model.movesCount(), model.elapsedTime(), model.bestScore());
+            state.pendingNanos = model.pendingNanos();
             oos.writeObject(state);
         } catch (IOException e) {
             System.err.println("Error saving game state: " + e.getMessage());
@@ -170,23 +261,58 @@ public class Main extends Application {
                 GameState state = (GameState) ois.readObject();
                 if (state.currentConfig != null && state.currentConfig.length() == GRID_SIZE * GRID_SIZE &&
                     state.initialConfig != null && state.initialConfig.length() == GRID_SIZE * GRID_SIZE) {
-                    currentConfig = state.currentConfig;
+                    String goalConfig = state.goalConfig != null ? state.goalConfig : Board.GOAL_CONFIG; // Older saves have no goal
+                    model.load(state.currentConfig, goalConfig, state.movesCount, state.score, state.elapsedTime);
+                    model.setBestScore(state.bestScore);
+                    model.addTime(state.pendingNanos);
                     initialConfig = state.initialConfig;
                     levelIndex = state.levelIndex;
-                    score = state.score;
-                    movesCount = state.movesCount;
-                    elapsedTime = state.elapsedTime;
-                    bestScore = state.bestScore;
-                    lblScore.setText("Score: " + score);
-                    lblBestScore.setText("Best: " + bestScore);
                     restoreStageProperties();
                 }
-            } catch (IOException | ClassNotFoundException e) {
+            } catch (IOException | ClassNotFoundException | IllegalArgumentException e) {
                 System.err.println("Error loading game state: " + e.getMessage());
             }
         }
     }
 
+    private void loadLevelPack() {
+        File packFile = new File(LEVEL_PACK_FILE);
+        if (packFile.exists()) {
+            try {
+                LevelPack pack = LevelPack.open(packFile);
+                if (pack.boardSize() == GRID_SIZE && pack.size() > 0) {
+                    levelPack = pack;
+                } else {
+                    System.err.println("Ignoring level pack: no " + GRID_SIZE + "x" + GRID_SIZE + " levels");
+                }
+            } catch (IOException e) {
+                System.err.println("Error loading level pack: " + e.getMessage());
+            }
+        }
+    }
+
+    private int levelCount() {
+        return levelPack != null ? levelPack.size() : configurations.length;
+    }
+
+    private String levelConfig(int index) {
+        return levelPack != null ? levelPack.config(index) : configurations[index];
+    }
+
+    private String levelGoal(int index) {
+        return levelPack != null ? levelPack.goal(index) : Board.GOAL_CONFIG;
+    }
+
+    private String levelLabel(int index) {
+        String label = "Level " + (index + 1);
+        if (levelPack == null) return label;
+        String name = levelPack.name(index);
+        if (!name.isEmpty()) label += " - " + name;
+        int optimal = levelPack.optimalLength(index);
+        if (optimal >= 0) label += " (" + optimal + " moves)";
+        return label;
+    }
+
     private Scene createStartMenu() {
         StackPane menuPane = new StackPane();
         menuPane.setStyle("-fx-background-color: linear-gradient(to bottom, #2c3e50, #34495e);");
@@ -196,7 +322,7 @@ public class Main extends Application {
         title.setStyle("-fx-font-family: 'Arial'; -fx-font-size: 36px; -fx-text-fill: white; -fx-font-weight: bold;");
         title.setEffect(new DropShadow(5, Color.gray(0.4)));
 
-        Label bestScoreLabel = new Label("Best Score: " + bestScore);
+        Label bestScoreLabel = new Label("Best Score: " + model.bestScore());
         bestScoreLabel.setStyle("-fx-font-family: 'Arial'; -fx-font-size: 20px; -fx-text-fill: white;");
 
         Button btnStart = new Button("Start Game");
@@ -205,11 +331,8 @@ public class Main extends Application {
         btnStart.setOnAction(e -> {
             saveStageProperties();
             levelIndex = 0;
-            initialConfig = configurations[levelIndex];
-            currentConfig = initialConfig;
-            score = 0;
-            movesCount = 0;
-            elapsedTime = 0;
+            initialConfig = levelConfig(levelIndex);
+            model.load(initialConfig, levelGoal(levelIndex), 0, 0, 0);
             saveGameState();
             primaryStage.setScene(gameScene);
             loadLevel();
@@ -225,7 +348,7 @@ public class Main extends Application {
             loadLevel();
             restoreStageProperties();
         });
-        btnContinue.setDisable(!new File(SAVE_FILE).exists() || currentConfig == null || currentConfig.length() != GRID_SIZE * GRID_SIZE);
+        btnContinue.setDisable(!new File(SAVE_FILE).exists() || model.size() != GRID_SIZE);
 
         Button btnSelectLevel = new Button("Select Level");
         btnSelectLevel.setPrefWidth(200);
@@ -240,24 +363,22 @@ public class Main extends Application {
             Label selectTitle = new Label("Select Level");
             selectTitle.setStyle("-fx-font-family: 'Arial'; -fx-font-size: 24px; -fx-text-fill: white;");
 
-            ComboBox<String> levelSelector = new ComboBox<>();
-            levelSelector.setPrefWidth(200);
-            for (int i = 0; i < configurations.length; i++) {
-                levelSelector.getItems().add("Level " + (i + 1));
-            }
-            levelSelector.setValue("Level 1");
+            // Virtualized list: only visible rows are built, labels are read from the pack page by page
+            ListView<String> levelSelector = new ListView<>(new LevelList(levelCount(), this::levelLabel));
+            levelSelector.setPrefWidth(260);
+            levelSelector.setMaxWidth(260);
+            levelSelector.setPrefHeight(300);
+            levelSelector.setFixedCellSize(28);
+            levelSelector.getSelectionModel().select(0);
 
             Button btnConfirm = new Button("Start");
             btnConfirm.setPrefWidth(200);
             btnConfirm.setStyle("-fx-font-family: 'Arial'; -fx-font-size: 16px; -fx-background-color: #3498db; -fx-text-fill: white; -fx-background-radius: 5;");
             btnConfirm.setOnAction(e2 -> {
                 saveStageProperties();
-                levelIndex = levelSelector.getSelectionModel().getSelectedIndex();
-                initialConfig = configurations[levelIndex];
-                currentConfig = initialConfig;
-                score = 0;
-                movesCount = 0;
-                elapsedTime = 0;
+                levelIndex = Math.max(0, levelSelector.getSelectionModel().getSelectedIndex());
+                initialConfig = levelConfig(levelIndex);
+                model.load(initialConfig, levelGoal(levelIndex), 0, 0, 0);
                 saveGameState();
                 primaryStage.setScene(gameScene);
                 loadLevel();
@@ -298,6 +419,7 @@ public class Main extends Application {
         Button btnNewGame = new Button("New Game");
         Button btnRestart = new Button("Restart");
         Button btnRandomLevel = new Button("Random Level");
+        Button btnHint = new Button("Hint");
         Button btnMenu = new Button("Menu");
         Button btnFullScreen = new Button("⛶");
 
@@ -305,6 +427,7 @@ public class Main extends Application {
         btnNewGame.setPrefSize(120, 30);
         btnRestart.setPrefSize(80, 30);
         btnRandomLevel.setPrefSize(120, 30);
+        btnHint.setPrefSize(60, 30);
         btnMenu.setPrefSize(80, 30);
         btnFullScreen.setPrefSize(40, 30);
 
@@ -313,6 +436,7 @@ public class Main extends Application {
         btnNewGame.setStyle(buttonStyle);
         btnRestart.setStyle(buttonStyle);
         btnRandomLevel.setStyle(buttonStyle);
+        btnHint.setStyle(buttonStyle);
         btnMenu.setStyle(buttonStyle);
         btnFullScreen.setId("btn-fullscreen");
 
@@ -322,12 +446,9 @@ public class Main extends Application {
             }
             if (!isWin && !isPaused) {
                 saveStageProperties();
-                levelIndex = (levelIndex + 1) % configurations.length;
-                initialConfig = configurations[levelIndex];
-                currentConfig = initialConfig;
-                movesCount = 0;
-                score = 0;
-                elapsedTime = 0;
+                levelIndex = (levelIndex + 1) % levelCount();
+                initialConfig = levelConfig(levelIndex);
+                model.load(initialConfig, levelGoal(levelIndex), 0, 0, 0);
                 saveGameState();
                 loadLevel();
                 restoreStageProperties();
@@ -338,10 +459,7 @@ public class Main extends Application {
             removeOverlay();
             isWin = false;
             isPaused = false;
-            movesCount = 0;
-            score = 0;
-            elapsedTime = 0;
-            currentConfig = initialConfig;
+            model.load(initialConfig, model.goalConfig(), 0, 0, 0);
             enableControlButtons();
             enableTiles();
             saveGameState();
@@ -357,18 +475,18 @@ public class Main extends Application {
             if (!isWin && !isPaused) {
                 saveStageProperties();
                 initialConfig = generateRandomConfiguration();
-                currentConfig = initialConfig;
                 levelIndex = -1;
-                movesCount = 0;
-                elapsedTime = 0;
+                model.load(initialConfig, Board.GOAL_CONFIG, 0, model.score(), 0);
                 saveGameState();
                 loadLevel();
                 restoreStageProperties();
             }
         });
 
+        btnHint.setOnAction(e -> showHint());
+
         btnPause.setOnAction(e -> {
-            if (!isWin) {
+            if (!isWin && !isDemo) {
                 isPaused = !isPaused;
                 btnPause.setText(isPaused ? "▶" : "| |");
                 if (isPaused) {
@@ -383,6 +501,7 @@ public class Main extends Application {
         });
 
         btnMenu.setOnAction(e -> {
+            stopDemo();
             if (overlay != null && root.getCenter() == overlay) {
                 removeOverlay();
             }
@@ -400,7 +519,7 @@ public class Main extends Application {
             saveStageProperties();
         });
 
-        HBox topControls = new HBox(10, btnPause, btnNewGame, btnRestart, btnRandomLevel, btnMenu, btnFullScreen);
+        HBox topControls = new HBox(10, btnPause, btnNewGame, btnRestart, btnRandomLevel, btnHint, btnMenu, btnFullScreen);
         topControls.setAlignment(Pos.CENTER);
         topControls.setPadding(new Insets(10));
         return topControls;
@@ -448,6 +567,27 @@ public class Main extends Application {
         statsGrid.add(lblLevel, 0, 2);
         statsGrid.add(lblTime, 1, 2);
 
+        Button btnDemo = new Button("Demo");
+        btnDemo.setPrefSize(80, 30);
+        btnDemo.setStyle("-fx-font-family: 'Arial'; -fx-font-size: 12px; -fx-background-color: #3498db; -fx-text-fill: white; -fx-background-radius: 5;");
+        btnDemo.setOnAction(e -> {
+            if (isDemo) stopDemo();
+            else startDemo();
+        });
+
+        // Logarithmic speed: 1 to 10,000 moves per second
+        Slider demoSpeedSlider = new Slider(0, DEMO_MAX_SPEED_LOG, 0);
+        demoSpeedSlider.setPrefWidth(150);
+        demoSpeedSlider.valueProperty().addListener((obs, oldVal, newVal) -> {
+            demoSpeed = Math.pow(10, newVal.doubleValue());
+            int shown = (int) Math.round(demoSpeed);
+            lblDemoSpeed.setText("Demo: " + shown + (shown == 1 ? " move/s" : " moves/s"));
+        });
+        lblDemoSpeed.setStyle("-fx-font-family: 'Arial'; -fx-font-size: 14px; -fx-text-fill: white;");
+
+        statsGrid.add(btnDemo, 0, 3);
+        statsGrid.add(new HBox(10, demoSpeedSlider, lblDemoSpeed), 1, 3);
+
         return statsGrid;
     }
 
@@ -509,19 +649,15 @@ public class Main extends Application {
     }
 
     private void loadLevel() {
+        stopDemo();
         isWin = false;
         isPaused = false;
 
         lblLevel.setText(levelIndex >= 0 ? "Level: " + (levelIndex + 1) : "Level: Random");
-        lblMoves.setText("Moves: " + movesCount);
-        lblScore.setText("Score: " + score);
-        lblBestScore.setText("Best: " + bestScore);
-        lblMovesLeft.setText("Moves Left: " + (MAX_MOVES - movesCount));
-        lblTime.setText("Time: " + elapsedTime + "s");
 
         stopTimer();
         removeOverlay();
-        applyConfiguration(currentConfig);
+        renderBoard();
         enableTiles();
         enableControlButtons();
         if (!isPaused && !isWin) {
@@ -530,24 +666,103 @@ public class Main extends Application {
         restoreStageProperties();
     }
 
-    private void applyConfiguration(String config) {
-        lblMoves.setText("Moves: " + movesCount);
-        lblMovesLeft.setText("Moves Left: " + (MAX_MOVES - movesCount));
-        lblTime.setText("Time: " + elapsedTime + "s");
+    private void renderBoard() {
+        for (int i = 0; i < GRID_SIZE * GRID_SIZE; i++) markTileDirty(i);
+        statsDirty = true;
+        timeDirty = true;
+        statusDirty = false; // A fresh board never reopens a dialog
+        flushUi();
+    }
 
-        for (int i = 0; i < GRID_SIZE * GRID_SIZE; i++) {
-            int row = i / GRID_SIZE;
-            int col = i % GRID_SIZE;
-            char val = config.charAt(i);
-            Button tile = tiles[row][col];
-
-            if (val == '0') {
-                tile.setText("");
-                tile.setId("empty-tile");
-            } else {
-                tile.setText(String.valueOf(val));
-                tile.setId("tile");
+    // The game view only listens; nothing here touches a node directly
+    private void bindModel() {
+        uiFlush = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                flushUi();
+            }
+        };
+        model.addListener(new GameModel.Listener() {
+            @Override
+            public void tileMoved(int tile, int from, int to) {
+                markTileDirty(from);
+                markTileDirty(to);
+                requestUiFlush();
+            }
+
+            @Override
+            public void statsChanged() {
+                statsDirty = true;
+                requestUiFlush();
+            }
+
+            @Override
+            public void timeChanged() {
+                timeDirty = true;
+                requestUiFlush();
             }
+
+            @Override
+            public void statusChanged(GameModel.Status status) {
+                statusDirty = status != GameModel.Status.PLAYING || isViewer;
+                requestUiFlush();
+            }
+
+            @Override
+            public void boardReset() {
+                timerMark = System.nanoTime(); // Time before a reset belongs to the old board
+                for (int i = 0; i < GRID_SIZE * GRID_SIZE; i++) markTileDirty(i);
+                requestUiFlush();
+            }
+        });
+    }
+
+    private void markTileDirty(int index) {
+        if (!tileDirty[index]) {
+            tileDirty[index] = true;
+            dirtyTiles[dirtyTileCount++] = index;
+        }
+    }
+
+    private void requestUiFlush() {
+        if (!uiFlushScheduled) {
+            uiFlushScheduled = true;
+            uiFlush.start();
+        }
+    }
+
+    // Applies everything that changed since the last pulse in one pass
+    private void flushUi() {
+        uiFlush.stop();
+        uiFlushScheduled = false;
+
+        if (statsDirty) {
+            statsDirty = false;
+            lblMoves.setText("Moves: " + model.movesCount());
+            lblMovesLeft.setText("Moves Left: " + model.movesLeft());
+            lblScore.setText("Score: " + model.score());
+            lblBestScore.setText("Best: " + model.bestScore());
+        }
+        if (timeDirty) {
+            timeDirty = false;
+            lblTime.setText("Time: " + model.elapsedTime() + "s");
+        }
+        for (int i = 0; i < dirtyTileCount; i++) {
+            int index = dirtyTiles[i];
+            tileDirty[index] = false;
+            int value = isDemo ? demoBoard.tileAt(index) : model.tileAt(index);
+            setTileValue(tiles[index / GRID_SIZE][index % GRID_SIZE], value);
+        }
+        dirtyTileCount = 0;
+
+        if (statusDirty) {
+            statusDirty = false;
+            if (isViewer) {
+                String suffix = model.status() == GameModel.Status.WON ? " - solved"
+                        : model.status() == GameModel.Status.LOST ? " - out of moves" : "";
+                lblLevel.setText("Watching " + viewedAddress + suffix);
+            } else if (model.status() == GameModel.Status.WON) showWinDialog();
+            else if (model.status() == GameModel.Status.LOST) showLoseDialog();
         }
     }
 
@@ -588,7 +803,7 @@ public class Main extends Application {
     }
 
     private void attemptMove(int row, int col) {
-        if (isWin || isPaused || movesCount >= MAX_MOVES || isAnimating) return;
+        if (isWin || isPaused || model.movesLeft() <= 0 || isAnimating || isDemo || isViewer) return;
 
         if (canMoveTo(row - 1, col)) swapTiles(row, col, row - 1, col);
         else if (canMoveTo(row + 1, col)) swapTiles(row, col, row + 1, col);
@@ -596,8 +811,187 @@ public class Main extends Application {
         else if (canMoveTo(row, col + 1)) swapTiles(row, col, row, col + 1);
     }
 
+    private void showHint() {
+        if (isWin || isPaused || isAnimating || isDemo || model.movesLeft() <= 0) return;
+
+        Board board = model.snapshot();
+        int dir = findHintMove(board);
+        if (dir < 0) return;
+
+        // Glow the tile the player should click next
+        int index = Board.target(GRID_SIZE, board.blank(), dir);
+        Button tile = tiles[index / GRID_SIZE][index % GRID_SIZE];
+        Glow glow = new Glow(0);
+        tile.setEffect(glow);
+        Timeline hintTimeline = new Timeline(
+            new KeyFrame(Duration.ZERO, new KeyValue(glow.levelProperty(), 0)),
+            new KeyFrame(Duration.millis(300), new KeyValue(glow.levelProperty(), 0.8)),
+            new KeyFrame(Duration.millis(600), new KeyValue(glow.levelProperty(), 0))
+        );
+        hintTimeline.setCycleCount(2);
+        hintTimeline.setOnFinished(e -> tile.setEffect(new DropShadow(5, Color.gray(0.4))));
+        hintTimeline.play();
+    }
+
+    // Optimal walking-distance search within HINT_NODE_LIMIT, otherwise the constructive solver
+    private int findHintMove(Board board) {
+        Board goal = Board.fromConfig(model.goalConfig());
+        if (GRID_SIZE <= WalkingDistance.MAX_SIZE) {
+            IdaSolver.Result result = new IdaSolver(new WalkingDistance(goal), HINT_NODE_LIMIT).solve(board);
+            if (result.status == IdaSolver.Status.UNSOLVABLE) return -1;
+            if (result.status == IdaSolver.Status.SOLVED) {
+                return result.firstMove == Board.NONE ? -1 : result.firstMove;
+            }
+        }
+        return new ReductionSolver(goal).hint(board);
+    }
+
+    // Full solution for the demo: optimal within HINT_NODE_LIMIT, otherwise constructive
+    private byte[] findSolution(Board board) {
+        Board goal = Board.fromConfig(model.goalConfig());
+        if (GRID_SIZE <= WalkingDistance.MAX_SIZE) {
+            IdaSolver.Result result = new IdaSolver(new WalkingDistance(goal), HINT_NODE_LIMIT).solve(board);
+            if (result.status == IdaSolver.Status.UNSOLVABLE) return null;
+            if (result.moves != null) return result.moves;
+        }
+        ByteArrayOutputStream moves = new ByteArrayOutputStream();
+        return new ReductionSolver(goal).solve(board, moves::write) ? moves.toByteArray() : null;
+    }
+
+    private void startDemo() {
+        if (isWin || isPaused || isAnimating || isDemo || model.movesLeft() <= 0) return;
+
+        Board board = model.snapshot();
+        byte[] moves = findSolution(board);
+        if (moves == null || moves.length == 0) return;
+
+        isDemo = true;
+        stopTimer();
+        disableTiles();
+        demoBoard = board;
+        demoMoves = moves;
+        demoPosition = 0;
+        demoBudget = 1; // First move right away
+        demoLastPulse = 0;
+        if (demoTimer == null) {
+            demoTimer = new AnimationTimer() {
+                @Override
+                public void handle(long now) {
+                    demoPulse(now);
+                }
+            };
+        }
+        demoTimer.start();
+    }
+
+    // Runs once per JavaFX pulse: applies every move that is due, slides only when a single
+    // move is due and there is time to show it, then redraws just the cells that changed
+    private void demoPulse(long now) {
+        if (demoLastPulse != 0) {
+            demoBudget += (now - demoLastPulse) / 1e9 * demoSpeed;
+        }
+        demoLastPulse = now;
+
+        int due = (int) Math.min(demoBudget, demoMoves.length - demoPosition);
+        if (due <= 0) return;
+        demoBudget -= due;
+        finishDemoSlide();
+
+        if (due == 1 && 1 / demoSpeed >= DEMO_MIN_SLIDE_SECONDS) {
+            slideDemoMove(demoMoves[demoPosition++]);
+        } else {
+            for (int i = 0; i < due; i++) applyDemoMove(demoMoves[demoPosition++]);
+            flushUi();
+        }
+        if (demoPosition == demoMoves.length && demoSlide == null) finishDemo();
+    }
+
+    private void applyDemoMove(int dir) {
+        int from = demoBoard.blank();
+        demoBoard.move(dir);
+        markTileDirty(from);
+        markTileDirty(demoBoard.blank());
+    }
+
+    private void setTileValue(Button tile, int value) {
+        if (value == 0) {
+            tile.setText("");
+            tile.setId("empty-tile");
+        } else {
+            tile.setText(Integer.toString(value));
+            tile.setId("tile");
+        }
+    }
+
+    private void slideDemoMove(int dir) {
+        int blank = demoBoard.blank();
+        int moving = Board.target(GRID_SIZE, blank, dir);
+        Button from = tiles[moving / GRID_SIZE][moving % GRID_SIZE];
+        from.toFront();
+        applyDemoMove(dir);
+
+        double tileSize = tiles[0][0].getWidth();
+        demoSlide = new TranslateTransition(Duration.seconds(Math.min(0.2, 0.8 / demoSpeed)), from);
+        demoSlide.setByX((blank % GRID_SIZE - moving % GRID_SIZE) * (tileSize + 8));
+        demoSlide.setByY((blank / GRID_SIZE - moving / GRID_SIZE) * (tileSize + 8));
+        demoSlide.setInterpolator(Interpolator.EASE_BOTH);
+        demoSlide.setOnFinished(e -> {
+            finishDemoSlide();
+            if (isDemo && demoPosition == demoMoves.length) finishDemo();
+        });
+        demoSlide.play();
+    }
+
+    // Snaps a running slide to its end so the next batch starts from the exact board
+    private void finishDemoSlide() {
+        if (demoSlide != null) {
+            TranslateTransition slide = demoSlide;
+            demoSlide = null;
+            slide.stop();
+            slide.getNode().setTranslateX(0);
+            slide.getNode().setTranslateY(0);
+        }
+        flushUi();
+    }
+
+    private void finishDemo() {
+        demoTimer.stop();
+        for (int i = 0; i < GRID_SIZE * GRID_SIZE; i++) {
+            setTileValue(tiles[i / GRID_SIZE][i % GRID_SIZE], demoBoard.tileAt(i));
+        }
+        saveStageProperties();
+        overlay = createOverlay(
+                "\uD83C\uDFAC Demo solved it in " + demoMoves.length + " moves",
+                "Back to Game",
+                "btn-next",
+                () -> {
+                    stopDemo();
+                    restoreStageProperties();
+                }
+        );
+        BorderPane.setAlignment(overlay, Pos.CENTER);
+        root.setCenter(overlay);
+        restoreStageProperties();
+    }
+
+    // Ends the demo and puts the player's board back
+    private void stopDemo() {
+        if (!isDemo) return;
+        isDemo = false;
+        demoTimer.stop();
+        finishDemoSlide();
+        demoMoves = null;
+        demoBoard = null;
+        removeOverlay();
+        renderBoard();
+        enableTiles();
+        if (!isPaused && !isWin) {
+            startTimer();
+        }
+    }
+
     private boolean canMoveTo(int row, int col) {
-        return isInside(row, col) && tiles[row][col].getText().isEmpty();
+        return isInside(row, col) && model.tileAt(row * GRID_SIZE + col) == 0;
     }
 
     private boolean isInside(int row, int col) {
@@ -650,88 +1044,36 @@ public class Main extends Application {
             from.setScaleY(1.0);
             from.setEffect(new DropShadow(5, Color.gray(0.4))); // Restore original effect
 
-            // Swap tile content
-            to.setText(from.getText());
-            to.setId("tile");
-            from.setText("");
-            from.setId("empty-tile");
-
-            // Update game state
-            movesCount++;
-            score += 10;
-            lblMoves.setText("Moves: " + movesCount);
-            lblMovesLeft.setText("Moves Left: " + (MAX_MOVES - movesCount));
-            lblScore.setText("Score: " + score);
-            if (score > bestScore) {
-                bestScore = score;
-                lblBestScore.setText("Best: " + bestScore);
-            }
-
-            StringBuilder newConfig = new StringBuilder();
-            for (int i = 0; i < GRID_SIZE; i++) {
-                for (int j = 0; j < GRID_SIZE; j++) {
-                    String text = tiles[i][j].getText();
-                    newConfig.append(text.isEmpty() ? '0' : text.charAt(0));
-                }
-            }
-            currentConfig = newConfig.toString();
-            saveGameState();
-
             isAnimating = false; // Allow new moves
 
-            if (checkWin()) showWinDialog();
-            else if (movesCount >= MAX_MOVES) showLoseDialog();
+            // The model reports the swap, stats and any win or loss; flush now so the
+            // reset tile never shows its old text for a frame
+            model.slide(r1 * GRID_SIZE + c1);
+            saveGameState();
+            flushUi();
         });
 
         animation.play();
     }
 
-    private boolean checkWin() {
-        String targetConfig = "123804765";
-        int index = 0;
-        for (int i = 0; i < GRID_SIZE; i++) {
-            for (int j = 0; j < GRID_SIZE; j++) {
-                String text = tiles[i][j].getText();
-                char expected = targetConfig.charAt(index);
-                if (expected == '0') {
-                    if (!text.isEmpty()) return false;
-                } else {
-                    if (!text.equals(String.valueOf(expected))) return false;
-                }
-                index++;
-            }
-        }
-        return true;
-    }
-
     private void showWinDialog() {
         isWin = true;
         stopTimer();
         disableControlButtons();
 
-        int baseScore = 1000;
-        int timeBonus = Math.max(0, 500 - elapsedTime * 5);
-        score += (baseScore + timeBonus - 10);
-
-        if (score > bestScore) {
-            bestScore = score;
-            lblBestScore.setText("Best: " + bestScore);
-        }
-        lblScore.setText("Score: " + score);
+        int timeBonus = GameRules.timeBonus(model.elapsedTime());
         saveGameState();
 
         saveStageProperties();
         overlay = createOverlay(
-                "\uD83C\uDFC6 You Win in " + elapsedTime + "s!\nScore: " + (baseScore + timeBonus),
+                "\uD83C\uDFC6 You Win in " + model.elapsedTime() + "s!\nScore: " + (GameRules.WIN_BASE + timeBonus),
                 "Next Level",
                 "btn-next",
                 () -> {
                     removeOverlay();
-                    levelIndex = (levelIndex + 1) % configurations.length;
-                    initialConfig = configurations[levelIndex];
-                    currentConfig = initialConfig;
-                    movesCount = 0;
-                    elapsedTime = 0;
+                    levelIndex = (levelIndex + 1) % levelCount();
+                    initialConfig = levelConfig(levelIndex);
+                    model.load(initialConfig, levelGoal(levelIndex), 0, model.score(), 0);
                     saveGameState();
                     loadLevel();
                     restoreStageProperties();
@@ -745,13 +1087,6 @@ public class Main extends Application {
     private void showLoseDialog() {
         stopTimer();
         disableControlButtons();
-
-        score = Math.max(0, score - 200);
-        if (score > bestScore) {
-            bestScore = score;
-            lblBestScore.setText("Best: " + bestScore);
-        }
-        lblScore.setText("Score: " + score);
         saveGameState();
 
         saveStageProperties();
@@ -761,9 +1096,7 @@ public class Main extends Application {
                 "btn-retry",
                 () -> {
                     removeOverlay();
-                    movesCount = 0;
-                    elapsedTime = 0;
-                    currentConfig = initialConfig;
+                    model.load(initialConfig, model.goalConfig(), 0, model.score(), 0);
                     saveGameState();
                     loadLevel();
                     restoreStageProperties();
@@ -807,21 +1140,33 @@ public class Main extends Application {
         return overlay;
     }
 
+    // The clock measures real time and fires at each whole second the model will count, so a
+    // restart picks up the partial second where the last run left it
     private void startTimer() {
         stopTimer();
-        lblTime.setText("Time: " + elapsedTime + "s");
-        timer = new Timeline(new KeyFrame(Duration.seconds(1), e -> {
-            elapsedTime++;
-            lblTime.setText("Time: " + elapsedTime + "s");
+        timerMark = System.nanoTime();
+        scheduleTick();
+    }
+
+    private void scheduleTick() {
+        timer = new Timeline(new KeyFrame(Duration.millis(model.nanosToNextSecond() / 1e6), e -> {
+            sampleTime();
+            scheduleTick();
         }));
-        timer.setCycleCount(Timeline.INDEFINITE);
         timer.play();
     }
 
+    private void sampleTime() {
+        long now = System.nanoTime();
+        model.addTime(now - timerMark);
+        timerMark = now;
+    }
+
     private void stopTimer() {
         if (timer != null) {
             timer.stop();
             timer = null;
+            sampleTime();
         }
     }
 
@@ -0,0 +1,44 @@
+package sample;
+
+public final class ManhattanHeuristic implements Heuristic {
+
+    private final Board goal;
+    private final int size;
+    private final int[] goalRow;
+    private final int[] goalCol;
+
+    public ManhattanHeuristic(Board goal) {
+        this.goal = goal;
+        this.size = goal.size;
+        this.goalRow = new int[goal.cells.length];
+        this.goalCol = new int[goal.cells.length];
+        for (int i = 0; i < goal.cells.length; i++) {
+            goalRow[goal.cells[i]] = i / size;
+            goalCol[goal.cells[i]] = i % size;
+        }
+    }
+
+    @Override
+    public Board goal() {
+        return goal;
+    }
+
+    @Override
+    public int estimate(int[] cells) {
+        int h = 0;
+        for (int i = 0; i < cells.length; i++) {
+            int tile = cells[i];
+            if (tile != 0) h += distance(tile, i);
+        }
+        return h;
+    }
+
+    @Override
+    public int update(int[] cells, int h, int tile, int from, int to) {
+        return h - distance(tile, from) + distance(tile, to);
+    }
+
+    private int distance(int tile, int index) {
+        return Math.abs(index / size - goalRow[tile]) + Math.abs(index % size - goalCol[tile]);
+    }
+}
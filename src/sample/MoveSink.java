@@ -0,0 +1,7 @@
+package sample;
+
+// Receives solver moves one at a time (direction the empty cell travels)
+public interface MoveSink {
+
+    void accept(int dir);
+}
@@ -0,0 +1,477 @@
+package sample;
+
+import java.util.Arrays;
+
+// Constructive (non-optimal) solver for boards of any size. Places the top row and the left
+// column of the unsolved region, shrinks it to (m-1) x (m-1) and finishes the last 3x3 (or 2x2)
+// with a small optimal search. O(N^3) moves, streamed to a MoveSink as they are made.
+public final class ReductionSolver {
+
+    // Moves kept back for cancelling "X then opposite(X)" pairs before they are emitted
+    private static final int CANCEL_WINDOW = 256;
+
+    // Longest optimal 3x3 solution is 31 moves
+    private static final int MAX_CORNER_MOVES = 31;
+    private static final int FOUND = -1;
+
+    private final Board goal;
+
+    // Working state, valid during solve()
+    private int size;
+    private int[] cells;
+    private int[] pos;
+    private int blank;
+    private boolean[] locked;
+    private int[] stamp;
+    private int generation;
+    private int[] queue;
+    private byte[] via;
+    private int[] path;
+    private byte[] cornerPath;
+    private int cornerLength;
+    private MoveSink out;
+    private long moveLimit;
+    private long emitted;
+
+    public ReductionSolver(Board goal) {
+        this.goal = goal;
+    }
+
+    // Streams a solution of start into sink; returns false if start cannot reach the goal
+    public boolean solve(Board start, MoveSink sink) {
+        return solve(start, sink, Long.MAX_VALUE);
+    }
+
+    // Same, but stops once maxMoves moves have been streamed
+    public boolean solve(Board start, MoveSink sink, long maxMoves) {
+        if (!start.isSolvable(goal)) return false;
+
+        // Walk the goal's empty cell to the bottom-right corner. Solving towards that board and
+        // replaying the walk backwards reaches the real goal, and lets the reduction assume the
+        // classic layout (tile labels rewritten to reading order).
+        Board corner = goal.copy();
+        int n = goal.size;
+        int[] walk = new int[2 * (n - 1)];
+        int walkLength = 0;
+        while (corner.canMove(Board.RIGHT)) {
+            corner.move(Board.RIGHT);
+            walk[walkLength++] = Board.RIGHT;
+        }
+        while (corner.canMove(Board.DOWN)) {
+            corner.move(Board.DOWN);
+            walk[walkLength++] = Board.DOWN;
+        }
+
+        int[] label = new int[n * n];
+        for (int i = 0; i < n * n - 1; i++) label[corner.cells[i]] = i + 1;
+
+        init(start, label);
+        moveLimit = maxMoves;
+        emitted = 0;
+        // A short limit also shortens the window, so the first moves are not held back for
+        // hundreds of steps
+        CancellingSink cancelling = new CancellingSink(dir -> {
+            if (emitted < moveLimit) {
+                sink.accept(dir);
+                emitted++;
+            }
+        }, (int) Math.max(1, Math.min(CANCEL_WINDOW, maxMoves)));
+        out = cancelling;
+        try {
+            for (int t = 0; t < n - 3; t++) {
+                placeLine(t, t, false);
+                placeLine(t, t + 1, true);
+            }
+            finish(Math.min(n, 3));
+            for (int i = walkLength - 1; i >= 0; i--) {
+                cancelling.accept(Board.opposite(walk[i]));
+            }
+            cancelling.flush();
+        } catch (LimitReached e) {
+            // maxMoves streamed
+        } finally {
+            release();
+        }
+        return true;
+    }
+
+    // First move of the constructed solution, or -1 if there is none. Stops the solve after
+    // that move instead of building all O(N^3) of them
+    public int hint(Board start) {
+        final int[] first = {-1};
+        solve(start, dir -> first[0] = dir, 1);
+        return first[0];
+    }
+
+    private void init(Board start, int[] label) {
+        size = start.size;
+        int count = size * size;
+        cells = new int[count];
+        pos = new int[count];
+        for (int i = 0; i < count; i++) {
+            cells[i] = label[start.cells[i]];
+            pos[cells[i]] = i;
+        }
+        blank = pos[0];
+        locked = new boolean[count];
+        stamp = new int[count];
+        generation = 0;
+        queue = new int[count];
+        via = new byte[count];
+        path = new int[count];
+    }
+
+    private void release() {
+        cells = pos = stamp = queue = path = null;
+        locked = null;
+        via = null;
+        out = null;
+    }
+
+    // Places the top row of the region [r0, size) x [c0, size); transposed handles a left column
+    private void placeLine(int r0, int c0, boolean transposed) {
+        int last = size - 1;
+        for (int c = c0; c < last - 1; c++) {
+            int tile = goalTile(r0, c, transposed);
+            moveTile(tile, r0, c, transposed);
+            locked[cell(r0, c, transposed)] = true;
+        }
+
+        int a = goalTile(r0, last - 1, transposed);
+        int b = goalTile(r0, last, transposed);
+        if (pos[a] == cell(r0, last - 1, transposed) && pos[b] == cell(r0, last, transposed)) {
+            locked[pos[a]] = true;
+            locked[pos[b]] = true;
+            return;
+        }
+        // a goes to the corner, b right below it, then one rotation drops both into place.
+        // b is brought next to the corner inside a 3x2 window because walking it there tile by
+        // tile can shut the empty cell in at (r0, last - 1).
+        moveTile(a, r0, last, transposed);
+        locked[pos[a]] = true;
+        if (!inWindow(pos[b], r0, last, transposed)) {
+            moveTile(b, r0 + 2, last - 1, transposed);
+        }
+        if (!inWindow(blank, r0, last, transposed)) {
+            locked[pos[b]] = true;
+            int entry = cell(r0 + 2, last - 1, transposed);
+            routeBlank(pos[b] != entry ? entry : cell(r0 + 2, last, transposed));
+            locked[pos[b]] = false;
+        }
+        locked[pos[a]] = false;
+        arrangeWindow(a, b, r0, last, transposed);
+        locked[pos[a]] = true;
+        locked[pos[b]] = true;
+        routeBlank(cell(r0, last - 1, transposed));
+        locked[pos[a]] = false;
+        locked[pos[b]] = false;
+        step(toward(cell(r0, last - 1, transposed), pos[a]));
+        step(toward(blank, pos[b]));
+        locked[cell(r0, last - 1, transposed)] = true;
+        locked[cell(r0, last, transposed)] = true;
+    }
+
+    private boolean inWindow(int at, int r0, int last, boolean transposed) {
+        int r = transposed ? at % size : at / size;
+        int c = transposed ? at / size : at % size;
+        return r >= r0 && r <= r0 + 2 && c >= last - 1;
+    }
+
+    // Breadth-first search over (a, b, empty) placements inside the window rows r0..r0+2,
+    // columns last-1..last until a sits in the corner with b below it
+    private void arrangeWindow(int a, int b, int r0, int last, boolean transposed) {
+        int[] windowCell = new int[6];
+        for (int k = 0; k < 6; k++) windowCell[k] = cell(r0 + k / 2, last - 1 + k % 2, transposed);
+        int startState = windowState(indexOf(windowCell, pos[a]), indexOf(windowCell, pos[b]),
+                indexOf(windowCell, blank));
+
+        int[] parent = new int[216];
+        Arrays.fill(parent, -1);
+        int[] frontier = new int[216];
+        int head = 0, tail = 0;
+        parent[startState] = startState;
+        frontier[tail++] = startState;
+        int found = -1;
+        while (head < tail) {
+            int state = frontier[head++];
+            int pa = state / 36, pb = state / 6 % 6, pz = state % 6;
+            if (pa == 1 && pb == 3) {
+                found = state;
+                break;
+            }
+            for (int dir = 0; dir < 4; dir++) {
+                int r = pz / 2 + Board.ROW_DELTA[dir];
+                int c = pz % 2 + Board.COL_DELTA[dir];
+                if (r < 0 || r > 2 || c < 0 || c > 1) continue;
+                int next = r * 2 + c;
+                int na = pa == next ? pz : pa;
+                int nb = pb == next ? pz : pb;
+                int nextState = windowState(na, nb, next);
+                if (parent[nextState] >= 0) continue;
+                parent[nextState] = state;
+                frontier[tail++] = nextState;
+            }
+        }
+        if (found < 0) throw new IllegalStateException("Cannot arrange the last two tiles");
+
+        int length = 0;
+        for (int state = found; state != startState; state = parent[state]) {
+            path[length++] = windowCell[state % 6];
+        }
+        while (length > 0) step(toward(blank, path[--length]));
+    }
+
+    private static int windowState(int a, int b, int empty) {
+        return a * 36 + b * 6 + empty;
+    }
+
+    // Moves tile to (row, col): down first if it sits above the target row, then across, then up
+    private void moveTile(int tile, int row, int col, boolean transposed) {
+        while (true) {
+            int at = pos[tile];
+            int r = transposed ? at % size : at / size;
+            int c = transposed ? at / size : at % size;
+            int next;
+            if (r < row) next = cell(r + 1, c, transposed);
+            else if (c < col) next = cell(r, c + 1, transposed);
+            else if (c > col) next = cell(r, c - 1, transposed);
+            else if (r > row) next = cell(r - 1, c, transposed);
+            else return;
+
+            locked[at] = true;
+            routeBlank(next);
+            locked[at] = false;
+            step(toward(blank, at));
+        }
+    }
+
+    private int goalTile(int r, int c, boolean transposed) {
+        return cell(r, c, transposed) + 1;
+    }
+
+    private int cell(int r, int c, boolean transposed) {
+        return transposed ? c * size + r : r * size + c;
+    }
+
+    // Direction from cell from to the adjacent cell to
+    private int toward(int from, int to) {
+        if (to == from - size) return Board.UP;
+        if (to == from + size) return Board.DOWN;
+        return to < from ? Board.LEFT : Board.RIGHT;
+    }
+
+    // Walks the empty cell to dest over unlocked cells. Each step goes along whichever axis
+    // still has the larger gap, or the other one if that cell is locked. The unlocked region
+    // is the unsolved rectangle minus a prefix of the current line, so the walk is only ever
+    // blocked by the few tiles held in place while one is being moved; it steps around such a
+    // tile, and a breadth-first search is the fallback if that fails. Searching every route
+    // would cost the square of its length, which is up to N for every tile.
+    private void routeBlank(int dest) {
+        int destRow = dest / size;
+        int destCol = dest % size;
+        int budget = 2 * (Math.abs(destRow - blank / size) + Math.abs(destCol - blank % size)) + 8;
+        while (blank != dest) {
+            int rowGap = destRow - blank / size;
+            int colGap = destCol - blank % size;
+            int vertical = rowGap < 0 ? Board.UP : rowGap > 0 ? Board.DOWN : -1;
+            int horizontal = colGap < 0 ? Board.LEFT : colGap > 0 ? Board.RIGHT : -1;
+            int first = Math.abs(rowGap) >= Math.abs(colGap) ? vertical : horizontal;
+            int second = first == vertical ? horizontal : vertical;
+            if (budget-- == 0) {
+                searchBlank(dest);
+                return;
+            }
+            if (isFree(blank, first)) {
+                step(first);
+            } else if (isFree(blank, second)) {
+                step(second);
+            } else if (!stepAround(first >= 0 ? first : second, rowGap, colGap)) {
+                searchBlank(dest);
+                return;
+            }
+        }
+    }
+
+    // Side-steps the locked cell ahead in direction dir, preferring the side towards dest
+    private boolean stepAround(int dir, int rowGap, int colGap) {
+        boolean vertical = dir == Board.UP || dir == Board.DOWN;
+        int gap = vertical ? colGap : rowGap;
+        int toward = vertical ? (gap < 0 ? Board.LEFT : Board.RIGHT) : (gap < 0 ? Board.UP : Board.DOWN);
+        for (int side : new int[]{toward, Board.opposite(toward)}) {
+            if (!isFree(blank, side)) continue;
+            if (!isFree(Board.target(size, blank, side), dir)) continue;
+            step(side);
+            step(dir);
+            return true;
+        }
+        return false;
+    }
+
+    private boolean isFree(int from, int dir) {
+        if (dir < 0) return false;
+        int next = Board.target(size, from, dir);
+        return next >= 0 && !locked[next];
+    }
+
+    // Breadth-first path for the empty cell over unlocked cells; stops as soon as dest is reached
+    private void searchBlank(int dest) {
+        if (blank == dest) return;
+        generation++;
+        int head = 0, tail = 0;
+        queue[tail++] = blank;
+        stamp[blank] = generation;
+        while (head < tail) {
+            int at = queue[head++];
+            if (at == dest) break;
+            for (int dir = 0; dir < 4; dir++) {
+                int next = Board.target(size, at, dir);
+                if (next < 0 || locked[next] || stamp[next] == generation) continue;
+                stamp[next] = generation;
+                via[next] = (byte) dir;
+                queue[tail++] = next;
+            }
+        }
+        if (stamp[dest] != generation) {
+            throw new IllegalStateException("Empty cell cannot reach cell " + dest);
+        }
+        int length = 0;
+        for (int at = dest; at != blank; at = Board.target(size, at, Board.opposite(via[at]))) {
+            path[length++] = via[at];
+        }
+        while (length > 0) step(path[--length]);
+    }
+
+    private void step(int dir) {
+        int to = Board.target(size, blank, dir);
+        int tile = cells[to];
+        cells[blank] = tile;
+        pos[tile] = blank;
+        cells[to] = 0;
+        pos[0] = to;
+        blank = to;
+        out.accept(dir);
+        if (emitted >= moveLimit) throw LimitReached.INSTANCE;
+    }
+
+    // Solves the bottom-right m x m corner optimally with IDA* under Manhattan distance. At most
+    // 3x3, so this is a few thousand nodes; a full distance table would take 9! states to build
+    private void finish(int m) {
+        int offset = size - m;
+        int[] local = new int[m * m];
+        for (int k = 0; k < m * m; k++) {
+            int tile = cells[(offset + k / m) * size + offset + k % m];
+            local[k] = tile == 0 ? 0 : localLabel(tile, offset, m);
+        }
+        int localBlank = indexOf(local, 0);
+        int h = 0;
+        for (int k = 0; k < m * m; k++) {
+            if (local[k] != 0) h += cornerDistance(local[k], k, m);
+        }
+
+        cornerPath = new byte[MAX_CORNER_MOVES + 1];
+        int bound = h;
+        while (true) {
+            int next = searchCorner(local, m, localBlank, 0, h, bound, Board.NONE);
+            if (next == FOUND) break;
+            if (next > MAX_CORNER_MOVES) throw new IllegalStateException("Corner is not solvable");
+            bound = next;
+        }
+        // Local directions are board directions
+        for (int i = 0; i < cornerLength; i++) step(cornerPath[i]);
+        cornerPath = null;
+    }
+
+    // FOUND, or the smallest f above bound in this subtree
+    private int searchCorner(int[] local, int m, int empty, int g, int h, int bound, int last) {
+        if (g + h > bound) return g + h;
+        if (h == 0) {
+            cornerLength = g;
+            return FOUND;
+        }
+        int min = Integer.MAX_VALUE;
+        for (int dir = 0; dir < 4; dir++) {
+            if (last != Board.NONE && dir == Board.opposite(last)) continue;
+            int next = Board.target(m, empty, dir);
+            if (next < 0) continue;
+            int tile = local[next];
+            int childH = h - cornerDistance(tile, next, m) + cornerDistance(tile, empty, m);
+            local[empty] = tile;
+            local[next] = 0;
+            cornerPath[g] = (byte) dir;
+            int t = searchCorner(local, m, next, g + 1, childH, bound, dir);
+            local[next] = tile;
+            local[empty] = 0;
+            if (t == FOUND) return FOUND;
+            if (t < min) min = t;
+        }
+        return min;
+    }
+
+    private static int cornerDistance(int label, int at, int m) {
+        int goalCell = label - 1;
+        return Math.abs(goalCell / m - at / m) + Math.abs(goalCell % m - at % m);
+    }
+
+    // Local label (1..m*m-1) of a tile whose goal cell lies in the corner
+    private int localLabel(int tile, int offset, int m) {
+        int goalCell = tile - 1;
+        int r = goalCell / size - offset;
+        int c = goalCell % size - offset;
+        return r * m + c + 1;
+    }
+
+    private static int indexOf(int[] values, int value) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == value) return i;
+        }
+        return -1;
+    }
+
+    // Unwinds solve() once moveLimit moves are out; shared and stackless, so throwing it is cheap
+    private static final class LimitReached extends RuntimeException {
+        static final LimitReached INSTANCE = new LimitReached();
+
+        private LimitReached() {
+            super(null, null, false, false);
+        }
+    }
+
+    // Drops "X then opposite(X)" pairs, holding back at most window moves
+    private static final class CancellingSink implements MoveSink {
+        private final MoveSink target;
+        private final int[] ring;
+        private int start;
+        private int count;
+
+        CancellingSink(MoveSink target, int window) {
+            this.target = target;
+            this.ring = new int[window];
+        }
+
+        @Override
+        public void accept(int dir) {
+            if (count > 0) {
+                int top = (start + count - 1) % ring.length;
+                if (ring[top] == Board.opposite(dir)) {
+                    count--;
+                    return;
+                }
+            }
+            if (count == ring.length) {
+                target.accept(ring[start]);
+                start = (start + 1) % ring.length;
+                count--;
+            }
+            ring[(start + count) % ring.length] = dir;
+            count++;
+        }
+
+        void flush() {
+            while (count > 0) {
+                target.accept(ring[start]);
+                start = (start + 1) % ring.length;
+                count--;
+            }
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package sample;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+// Replays submitted games on a headless board and checks the claimed moves, score and time
+// against GameRules. One instance reuses its scratch arrays and is not thread-safe;
+// verifyAll() gives every worker thread its own instance.
+public final class ReplayVerifier {
+
+    public enum Verdict {
+        ACCEPTED,
+        BAD_CONFIG,
+        ILLEGAL_MOVE,
+        MOVES_AFTER_END,
+        UNFINISHED,
+        MOVE_COUNT_MISMATCH,
+        SCORE_MISMATCH,
+        TIME_IMPLAUSIBLE
+    }
+
+    public static final class Submission {
+        final String initialConfig;
+        final byte[] moves;        // directions the empty cell travels (Board.UP ... Board.RIGHT)
+        final int claimedMoves;
+        final int claimedScore;
+        final int claimedTime;     // seconds, as counted by the game's timer
+        final int startScore;      // score carried over from earlier levels
+        final String goalConfig;   // null for the default snail goal
+
+        public Submission(String initialConfig, byte[] moves, int claimedMoves, int claimedScore, int claimedTime, int startScore) {
+            this(initialConfig, null, moves, claimedMoves, claimedScore, claimedTime, startScore);
+        }
+
+        public Submission(String initialConfig, String goalConfig, byte[] moves, int claimedMoves, int claimedScore,
+                          int claimedTime, int startScore) {
+            this.initialConfig = initialConfig;
+            this.goalConfig = goalConfig;
+            this.moves = moves;
+            this.claimedMoves = claimedMoves;
+            this.claimedScore = claimedScore;
+            this.claimedTime = claimedTime;
+            this.startScore = startScore;
+        }
+    }
+
+    private static final ThreadLocal<ReplayVerifier> WORKERS = ThreadLocal.withInitial(ReplayVerifier::new);
+
+    private int[] cells = new int[0];
+    private int[] goal = new int[0];
+    private boolean[] seen = new boolean[0];
+    private int goalSize = -1;
+    private String goalConfig; // goal currently in goal[], null for the default goal of goalSize
+
+    public Verdict verify(Submission submission) {
+        String config = submission.initialConfig;
+        int size = (int) Math.round(Math.sqrt(config.length()));
+        int count = size * size;
+        if (size < 2 || count != config.length()) return Verdict.BAD_CONFIG;
+        if (!prepare(size, submission.goalConfig)) return Verdict.BAD_CONFIG;
+
+        // Parse the start position and count the cells that differ from the goal
+        Arrays.fill(seen, false);
+        int blank = -1;
+        int misplaced = 0;
+        for (int i = 0; i < count; i++) {
+            int tile = Character.digit(config.charAt(i), 36);
+            if (tile < 0 || tile >= count || seen[tile]) return Verdict.BAD_CONFIG;
+            seen[tile] = true;
+            cells[i] = tile;
+            if (tile == 0) blank = i;
+            if (tile != goal[i]) misplaced++;
+        }
+        if (blank < 0) return Verdict.BAD_CONFIG;
+
+        byte[] moves = submission.moves;
+        int score = submission.startScore;
+        int played = 0;
+        boolean won = false;
+        for (int m = 0; m < moves.length; m++) {
+            if (won || played >= GameRules.MAX_MOVES) return Verdict.MOVES_AFTER_END;
+            int dir = moves[m];
+            if (dir < 0 || dir > 3) return Verdict.ILLEGAL_MOVE;
+            int to = Board.target(size, blank, dir);
+            if (to < 0) return Verdict.ILLEGAL_MOVE;
+
+            int tile = cells[to];
+            misplaced -= (cells[blank] != goal[blank] ? 1 : 0) + (tile != goal[to] ? 1 : 0);
+            cells[blank] = tile;
+            cells[to] = 0;
+            misplaced += (tile != goal[blank] ? 1 : 0) + (goal[to] != 0 ? 1 : 0);
+            blank = to;
+
+            played++;
+            score += GameRules.MOVE_POINTS;
+            won = misplaced == 0;
+        }
+
+        if (played != submission.claimedMoves) return Verdict.MOVE_COUNT_MISMATCH;
+        if (!won && played < GameRules.MAX_MOVES) return Verdict.UNFINISHED;
+        // The game's clock carries partial seconds across pauses and restarts, so the claimed
+        // time is whole seconds of real play and is short of it by less than one second
+        if (submission.claimedTime < 0
+                || (long) submission.claimedTime * 1000 + 999 < (long) played * GameRules.MIN_MOVE_MILLIS) {
+            return Verdict.TIME_IMPLAUSIBLE;
+        }
+        int expected = won ? GameRules.winScore(score, submission.claimedTime) : GameRules.loseScore(score);
+        return expected == submission.claimedScore ? Verdict.ACCEPTED : Verdict.SCORE_MISMATCH;
+    }
+
+    // Loads the goal into goal[]; false if goalConfig is not a valid size x size board
+    private boolean prepare(int size, String goalConfig) {
+        if (size == goalSize && (goalConfig == null ? this.goalConfig == null : goalConfig.equals(this.goalConfig))) {
+            return true;
+        }
+        Board goalBoard;
+        if (goalConfig == null) {
+            goalBoard = size == 3 ? Board.fromConfig(Board.GOAL_CONFIG) : Board.snailGoal(size);
+        } else {
+            try {
+                goalBoard = Board.fromConfig(goalConfig);
+            } catch (IllegalArgumentException e) {
+                return false;
+            }
+            if (goalBoard.size() != size) return false;
+        }
+        goal = goalBoard.toArray();
+        if (size != goalSize) {
+            cells = new int[size * size];
+            seen = new boolean[size * size];
+        }
+        goalSize = size;
+        this.goalConfig = goalConfig;
+        return true;
+    }
+
+    // Verifies a batch in parallel; results line up with the submissions
+    public static Verdict[] verifyAll(List<Submission> submissions) {
+        Verdict[] verdicts = new Verdict[submissions.size()];
+        IntStream.range(0, verdicts.length).parallel()
+                .forEach(i -> verdicts[i] = WORKERS.get().verify(submissions.get(i)));
+        return verdicts;
+    }
+
+    // Moves written as the direction the empty cell travels: U, D, L, R ("-" for none)
+    public static byte[] parseMoves(String text) {
+        if (text.equals("-")) return new byte[0];
+        byte[] moves = new byte[text.length()];
+        for (int i = 0; i < moves.length; i++) {
+            switch (Character.toUpperCase(text.charAt(i))) {
+                case 'U': moves[i] = Board.UP; break;
+                case 'D': moves[i] = Board.DOWN; break;
+                case 'L': moves[i] = Board.LEFT; break;
+                case 'R': moves[i] = Board.RIGHT; break;
+                default: moves[i] = -1;
+            }
+        }
+        return moves;
+    }
+
+    // Batch mode: one submission per line,
+    // "config moves claimedMoves claimedScore claimedTime [startScore [goal]]" ("-" goal for the default)
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: ReplayVerifier <submissions.txt>");
+            return;
+        }
+        List<Submission> submissions = new ArrayList<>();
+        long totalMoves = 0;
+        try (BufferedReader reader = new BufferedReader(new FileReader(args[0]))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                String[] parts = line.split("\\s+");
+                try {
+                    String goal = parts.length > 6 && !parts[6].equals("-") ? parts[6] : null;
+                    submissions.add(new Submission(parts[0], goal, parseMoves(parts[1]),
+                            Integer.parseInt(parts[2]), Integer.parseInt(parts[3]), Integer.parseInt(parts[4]),
+                            parts.length > 5 ? Integer.parseInt(parts[5]) : 0));
+                    totalMoves += submissions.get(submissions.size() - 1).moves.length;
+                } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                    System.err.println("Skipping malformed line: " + line);
+                }
+            }
+        }
+
+        long start = System.nanoTime();
+        Verdict[] verdicts = verifyAll(submissions);
+        long elapsed = System.nanoTime() - start;
+
+        int accepted = 0;
+        for (int i = 0; i < verdicts.length; i++) {
+            System.out.println((i + 1) + " " + verdicts[i]);
+            if (verdicts[i] == Verdict.ACCEPTED) accepted++;
+        }
+        System.out.printf("%d/%d accepted, %d moves in %.1f ms%n",
+                accepted, verdicts.length, totalMoves, elapsed / 1e6);
+    }
+}
@@ -0,0 +1,145 @@
+package sample;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+// Follows a SpectatorServer stream into a local GameModel. The socket is read on a
+// background thread; complete frames are collected and applied to the model on the
+// executor (the JavaFX thread in Main) in one task per batch, never one per frame. Frames are
+// checked on the background thread first: a bad snapshot, or one for another board size, ends
+// the connection through onDisconnect instead of reaching the model.
+public final class SpectatorClient implements Closeable {
+
+    private static final int READ_BUFFER = 64 * 1024;
+
+    private final String host;
+    private final int port;
+    private final int boardSize;
+    private final GameModel model;
+    private final Executor executor;
+    private final Consumer<String> onDisconnect;
+    private final Thread thread;
+    private volatile SocketChannel channel;
+    private volatile boolean closed;
+
+    // Guarded by lock: frames read but not yet applied
+    private final Object lock = new Object();
+    private ByteBuffer pending = ByteBuffer.allocate(1024);
+    private boolean applyScheduled;
+
+    private SpectatorClient(String host, int port, int boardSize, GameModel model, Executor executor,
+                            Consumer<String> onDisconnect) {
+        this.host = host;
+        this.port = port;
+        this.boardSize = boardSize;
+        this.model = model;
+        this.executor = executor;
+        this.onDisconnect = onDisconnect;
+        this.thread = new Thread(this::run, "spectator-client");
+        thread.setDaemon(true);
+    }
+
+    // Parses "host:port"; boardSize is the only board size the viewer accepts
+    public static SpectatorClient connect(String address, int boardSize, GameModel model, Executor executor,
+                                          Consumer<String> onDisconnect) {
+        int colon = address.lastIndexOf(':');
+        if (colon <= 0) throw new IllegalArgumentException("Expected host:port, got " + address);
+        int port = Integer.parseInt(address.substring(colon + 1));
+        SpectatorClient client = new SpectatorClient(address.substring(0, colon), port, boardSize, model, executor,
+                onDisconnect);
+        client.thread.start();
+        return client;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        SocketChannel current = channel;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (IOException e) {
+                // Reader thread exits either way
+            }
+        }
+    }
+
+    private void run() {
+        String reason = "Stream ended";
+        try (SocketChannel socket = SocketChannel.open(new InetSocketAddress(host, port))) {
+            channel = socket;
+            if (closed) return;
+            ByteBuffer in = ByteBuffer.allocate(READ_BUFFER);
+            fill(socket, in, 4);
+            in.flip();
+            if (in.getInt() != SpectatorStream.MAGIC) throw new IOException("Not a spectator stream");
+            in.compact();
+
+            // Frames that came in with the magic are handled before blocking on the next read
+            do {
+                in.flip();
+                int start = in.position();
+                int length;
+                while ((length = SpectatorStream.frameLength(in)) > 0) {
+                    SpectatorStream.check(in, boardSize);
+                    in.position(in.position() + length);
+                }
+                if (in.position() > start) {
+                    ByteBuffer frames = in.duplicate();
+                    frames.limit(in.position());
+                    frames.position(start);
+                    post(frames);
+                }
+                in.compact();
+            } while (socket.read(in) >= 0);
+        } catch (IOException | IllegalArgumentException e) {
+            reason = e.getMessage() != null ? e.getMessage() : e.toString();
+        } finally {
+            if (!closed) {
+                String message = reason;
+                executor.execute(() -> onDisconnect.accept(message));
+            }
+        }
+    }
+
+    private static void fill(SocketChannel socket, ByteBuffer in, int bytes) throws IOException {
+        while (in.position() < bytes) {
+            if (socket.read(in) < 0) throw new EOFException("Stream ended");
+        }
+    }
+
+    private void post(ByteBuffer frames) {
+        synchronized (lock) {
+            if (pending.remaining() < frames.remaining()) {
+                ByteBuffer grown = ByteBuffer.allocate(Math.max(pending.capacity() * 2, pending.position() + frames.remaining()));
+                pending.flip();
+                grown.put(pending);
+                pending = grown;
+            }
+            pending.put(frames);
+            if (applyScheduled) return;
+            applyScheduled = true;
+        }
+        executor.execute(this::applyPending);
+    }
+
+    private void applyPending() {
+        ByteBuffer frames;
+        synchronized (lock) {
+            applyScheduled = false;
+            pending.flip();
+            frames = ByteBuffer.allocate(pending.remaining());
+            frames.put(pending);
+            pending.clear();
+        }
+        frames.flip();
+        if (closed) return;
+        while (frames.hasRemaining()) SpectatorStream.apply(frames, model);
+    }
+}
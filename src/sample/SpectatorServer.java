@@ -0,0 +1,300 @@
+package sample;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+// Publishes a GameModel to any number of spectators over TCP.
+//
+// Model events are encoded on the game thread into a pending buffer, which costs a byte or
+// two per move and never blocks. A single selector thread swaps that buffer out, replays it
+// into a mirror model and copies the batch into every viewer's bounded outbound buffer, then
+// writes each viewer once per wakeup. A viewer whose buffer is full stops receiving frames;
+// as soon as it has drained what it already had it is sent a fresh snapshot of the mirror,
+// so a slow spectator skips ahead instead of holding anything up.
+public final class SpectatorServer implements GameModel.Listener, Closeable {
+
+    private static final int VIEWER_BUFFER = 16 * 1024;
+
+    private static final class Viewer {
+        final SocketChannel channel;
+        final ByteBuffer out = ByteBuffer.allocate(VIEWER_BUFFER);
+        SelectionKey key;
+        boolean stale; // frames were dropped; send a snapshot once out is empty
+
+        Viewer(SocketChannel channel) {
+            this.channel = channel;
+        }
+    }
+
+    private final GameModel model;
+    private final Selector selector;
+    private final ServerSocketChannel server;
+    private final Thread thread;
+
+    // Game thread: what viewers can already derive, so only real changes are sent
+    private int sentBest;
+    private int sentTime;
+
+    // Shared, guarded by lock
+    private final Object lock = new Object();
+    private ByteBuffer pending = ByteBuffer.allocate(1024);
+    private boolean wakeupPending;
+    private volatile boolean closed;
+
+    // Selector thread
+    private ByteBuffer draining = ByteBuffer.allocate(1024);
+    private final GameModel mirror = new GameModel();
+    private final List<Viewer> viewers = new ArrayList<>();
+    private final ByteBuffer discard = ByteBuffer.allocate(256);
+    private ByteBuffer snapshot; // Snapshot of the mirror, null once a frame changes it
+
+    public SpectatorServer(GameModel model, int port) throws IOException {
+        this.model = model;
+        this.selector = Selector.open();
+        try {
+            server = ServerSocketChannel.open();
+            server.bind(new InetSocketAddress(port));
+            server.configureBlocking(false);
+            server.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            selector.close();
+            throw e;
+        }
+        thread = new Thread(this::run, "spectator-server");
+        thread.setDaemon(true);
+    }
+
+    // Must be called on the thread that drives the model
+    public void start() {
+        boardReset();
+        model.addListener(this);
+        thread.start();
+    }
+
+    public int port() {
+        return server.socket().getLocalPort();
+    }
+
+    public int viewerCount() {
+        synchronized (lock) {
+            return viewers.size();
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        model.removeListener(this);
+        selector.wakeup();
+    }
+
+    // --- Game thread ---
+
+    @Override
+    public void tileMoved(int tile, int from, int to) {
+        int size = model.size();
+        // The empty cell went from to (where the tile was) ... to from
+        int dir = from == to - size ? Board.UP : from == to + size ? Board.DOWN : from == to - 1 ? Board.LEFT : Board.RIGHT;
+        synchronized (lock) {
+            reserve(1);
+            SpectatorStream.writeMove(dir, pending);
+        }
+        sentBest = model.bestScore(); // Viewers apply the same scoring
+        requestWakeup();
+    }
+
+    @Override
+    public void statsChanged() {
+        if (model.bestScore() == sentBest) return;
+        sentBest = model.bestScore();
+        synchronized (lock) {
+            reserve(5);
+            SpectatorStream.writeBest(sentBest, pending);
+        }
+        requestWakeup();
+    }
+
+    @Override
+    public void timeChanged() {
+        int time = model.elapsedTime();
+        if (time == sentTime) return;
+        synchronized (lock) {
+            reserve(5);
+            SpectatorStream.writeTime(sentTime, time, pending);
+        }
+        sentTime = time;
+        requestWakeup();
+    }
+
+    @Override
+    public void boardReset() {
+        synchronized (lock) {
+            reserve(SpectatorStream.snapshotBytes(model.size()));
+            SpectatorStream.writeSnapshot(model, pending);
+        }
+        sentBest = model.bestScore();
+        sentTime = model.elapsedTime();
+        requestWakeup();
+    }
+
+    private void reserve(int bytes) {
+        if (pending.remaining() < bytes) {
+            ByteBuffer grown = ByteBuffer.allocate(Math.max(pending.capacity() * 2, pending.position() + bytes));
+            pending.flip();
+            grown.put(pending);
+            pending = grown;
+        }
+    }
+
+    // One wakeup per batch: further frames ride along until the selector thread takes them
+    private void requestWakeup() {
+        synchronized (lock) {
+            if (wakeupPending) return;
+            wakeupPending = true;
+        }
+        selector.wakeup();
+    }
+
+    // --- Selector thread ---
+
+    private void run() {
+        try {
+            while (!closed) {
+                selector.select();
+                drainPending();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) continue;
+                    if (key.isAcceptable()) {
+                        acceptViewers();
+                    } else if (key.isReadable()) {
+                        discardInput((Viewer) key.attachment());
+                    }
+                }
+                for (int i = viewers.size() - 1; i >= 0; i--) flush(viewers.get(i));
+            }
+        } catch (IOException e) {
+            System.err.println("Spectator server stopped: " + e.getMessage());
+        } finally {
+            for (Viewer viewer : new ArrayList<>(viewers)) drop(viewer);
+            try {
+                server.close();
+                selector.close();
+            } catch (IOException e) {
+                System.err.println("Error closing spectator server: " + e.getMessage());
+            }
+        }
+    }
+
+    private void drainPending() {
+        synchronized (lock) {
+            ByteBuffer taken = pending;
+            pending = draining;
+            draining = taken;
+            wakeupPending = false;
+        }
+        draining.flip();
+        if (draining.hasRemaining()) {
+            snapshot = null;
+            int start = draining.position();
+            while (draining.hasRemaining()) SpectatorStream.apply(draining, mirror);
+            draining.position(start);
+            for (Viewer viewer : viewers) {
+                if (viewer.stale) continue;
+                if (viewer.out.remaining() < draining.remaining()) {
+                    viewer.stale = true;
+                } else {
+                    viewer.out.put(draining.duplicate());
+                }
+            }
+        }
+        draining.clear();
+    }
+
+    private ByteBuffer snapshot() {
+        if (snapshot == null) {
+            snapshot = ByteBuffer.allocate(SpectatorStream.snapshotBytes(mirror.size()));
+            SpectatorStream.writeSnapshot(mirror, snapshot);
+            snapshot.flip();
+        }
+        return snapshot.duplicate();
+    }
+
+    private void acceptViewers() throws IOException {
+        SocketChannel channel;
+        while ((channel = server.accept()) != null) {
+            Viewer viewer = new Viewer(channel);
+            try {
+                channel.configureBlocking(false);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                viewer.key = channel.register(selector, SelectionKey.OP_READ, viewer);
+            } catch (IOException e) {
+                channel.close();
+                continue;
+            }
+            viewer.out.putInt(SpectatorStream.MAGIC);
+            viewer.out.put(snapshot());
+            synchronized (lock) {
+                viewers.add(viewer);
+            }
+        }
+    }
+
+    // Viewers never send anything; reading only notices when they hang up
+    private void discardInput(Viewer viewer) {
+        try {
+            int read;
+            do {
+                discard.clear();
+                read = viewer.channel.read(discard);
+            } while (read > 0);
+            if (read < 0) drop(viewer);
+        } catch (IOException e) {
+            drop(viewer);
+        }
+    }
+
+    private void flush(Viewer viewer) {
+        if (!viewer.key.isValid()) return;
+        try {
+            if (viewer.stale && viewer.out.position() == 0) {
+                viewer.stale = false;
+                viewer.out.put(snapshot());
+            }
+            if (viewer.out.position() > 0) {
+                viewer.out.flip();
+                viewer.channel.write(viewer.out);
+                viewer.out.compact();
+            }
+            boolean waiting = viewer.out.position() > 0 || viewer.stale;
+            int ops = waiting ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ;
+            if (viewer.key.interestOps() != ops) viewer.key.interestOps(ops);
+        } catch (IOException e) {
+            drop(viewer);
+        }
+    }
+
+    private void drop(Viewer viewer) {
+        synchronized (lock) {
+            viewers.remove(viewer);
+        }
+        if (viewer.key != null) viewer.key.cancel();
+        try {
+            viewer.channel.close();
+        } catch (IOException e) {
+            // Already gone
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package sample;
+
+import java.nio.ByteBuffer;
+
+// Wire format of a spectator stream (big-endian). A connection starts with MAGIC and a
+// snapshot; after that every frame starts with a one-byte tag:
+//   0-3       the empty cell moved (Board.UP .. Board.RIGHT), one byte per move
+//   TICK      the clock advanced one second
+//   TIME      int: the clock was set
+//   BEST      int: the best score was set
+//   SNAPSHOT  size, status, moves (short), score, best score, time (ints), packed board, packed goal
+// Moves carry no score or status: the viewer replays them through its own GameModel, which
+// applies the same rules as the publisher's.
+final class SpectatorStream {
+
+    static final int MAGIC = 0x534C5631; // "SLV1"
+    static final int TICK = 4;
+    static final int TIME = 5;
+    static final int BEST = 6;
+    static final int SNAPSHOT = 7;
+    static final int MAX_BOARD_SIZE = 64;
+
+    private static final int SNAPSHOT_HEADER = 17;
+
+    private SpectatorStream() {
+    }
+
+    static int snapshotBytes(int size) {
+        return SNAPSHOT_HEADER + 2 * 8 * Board.packedWords(size);
+    }
+
+    static void writeSnapshot(GameModel model, ByteBuffer out) {
+        int size = model.size();
+        int words = Board.packedWords(size);
+        long[] packed = new long[2 * words];
+        Board.pack(model.board().cells, size, packed, 0);
+        Board.pack(model.goal().cells, size, packed, words);
+
+        out.put((byte) SNAPSHOT).put((byte) size).put((byte) model.status().ordinal())
+                .putShort((short) model.movesCount()).putInt(model.score()).putInt(model.bestScore())
+                .putInt(model.elapsedTime());
+        for (long word : packed) out.putLong(word);
+    }
+
+    static void writeMove(int dir, ByteBuffer out) {
+        out.put((byte) dir);
+    }
+
+    static void writeTime(int previous, int elapsedTime, ByteBuffer out) {
+        if (elapsedTime == previous + 1) {
+            out.put((byte) TICK);
+        } else {
+            out.put((byte) TIME).putInt(elapsedTime);
+        }
+    }
+
+    static void writeBest(int bestScore, ByteBuffer out) {
+        out.put((byte) BEST).putInt(bestScore);
+    }
+
+    // Length of the frame at the buffer's position, or -1 if it has not fully arrived
+    static int frameLength(ByteBuffer in) {
+        if (!in.hasRemaining()) return -1;
+        int tag = in.get(in.position());
+        int length;
+        if (tag >= 0 && tag <= TICK) {
+            length = 1;
+        } else if (tag == TIME || tag == BEST) {
+            length = 5;
+        } else if (tag == SNAPSHOT) {
+            if (in.remaining() < 2) return -1;
+            int size = in.get(in.position() + 1);
+            if (size < 2 || size > MAX_BOARD_SIZE) {
+                throw new IllegalArgumentException("Bad board size in snapshot: " + size);
+            }
+            length = snapshotBytes(size);
+        } else {
+            throw new IllegalArgumentException("Unknown frame " + tag);
+        }
+        return in.remaining() >= length ? length : -1;
+    }
+
+    // Applies the complete frame at the buffer's position to model and moves past it
+    static void apply(ByteBuffer in, GameModel model) {
+        int tag = in.get();
+        if (tag >= 0 && tag < TICK) {
+            model.move(tag);
+        } else if (tag == TICK) {
+            model.tick();
+        } else if (tag == TIME) {
+            model.setElapsedTime(in.getInt());
+        } else if (tag == BEST) {
+            model.setBestScore(in.getInt());
+        } else if (tag == SNAPSHOT) {
+            Snapshot snapshot = readSnapshot(in);
+            model.restore(snapshot.board, snapshot.goal, snapshot.movesCount, snapshot.score,
+                    snapshot.bestScore, snapshot.elapsedTime, snapshot.status);
+        } else {
+            throw new IllegalArgumentException("Unknown frame " + tag);
+        }
+    }
+
+    // Decodes the complete frame at the buffer's position without moving past it, so that a
+    // frame apply() would reject fails on the thread that read it. Snapshots must hold a
+    // valid boardSize x boardSize board and goal
+    static void check(ByteBuffer in, int boardSize) {
+        if (in.get(in.position()) != SNAPSHOT) return;
+        ByteBuffer frame = in.duplicate();
+        frame.get();
+        Snapshot snapshot = readSnapshot(frame);
+        if (snapshot.board.size() != boardSize) {
+            throw new IllegalArgumentException("Snapshot is " + snapshot.board.size() + "x" + snapshot.board.size()
+                    + ", expected " + boardSize + "x" + boardSize);
+        }
+    }
+
+    private static final class Snapshot {
+        Board board;
+        Board goal;
+        int movesCount;
+        int score;
+        int bestScore;
+        int elapsedTime;
+        GameModel.Status status;
+    }
+
+    // Reads a snapshot after its tag; IllegalArgumentException if a board or the status is invalid
+    private static Snapshot readSnapshot(ByteBuffer in) {
+        Snapshot snapshot = new Snapshot();
+        int size = in.get();
+        int status = in.get();
+        snapshot.movesCount = in.getShort();
+        snapshot.score = in.getInt();
+        snapshot.bestScore = in.getInt();
+        snapshot.elapsedTime = in.getInt();
+        int words = Board.packedWords(size);
+        long[] packed = new long[2 * words];
+        for (int i = 0; i < packed.length; i++) packed[i] = in.getLong();
+        if (status < 0 || status >= GameModel.Status.values().length) {
+            throw new IllegalArgumentException("Bad status in snapshot: " + status);
+        }
+        snapshot.status = GameModel.Status.values()[status];
+        snapshot.board = Board.unpack(packed, size);
+        snapshot.goal = unpackGoal(packed, words, size);
+        return snapshot;
+    }
+
+    private static Board unpackGoal(long[] packed, int words, int size) {
+        int[] cells = new int[size * size];
+        Board.unpack(packed, words, size, cells);
+        return new Board(size, cells);
+    }
+}
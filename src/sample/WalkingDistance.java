@@ -0,0 +1,244 @@
+package sample;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+// Walking distance (Takahashi). Only vertical moves change which goal rows the tiles of each
+// row belong to, so the "row table" (per row, how many tiles belong to each goal row, plus the
+// blank's row) can be solved on its own by breadth-first search; the same goes for columns.
+// The estimate is the row distance plus the column distance, which dominates Manhattan.
+//
+// A table depends only on the board size and the goal row of the blank: 4x4 has 24964 states,
+// built in a few milliseconds and cached for the process. Each state also links to its
+// successor for every (direction, goal row), so advance() is two array reads per move.
+public final class WalkingDistance implements Heuristic {
+
+    public static final int MAX_SIZE = 4;
+
+    private static final int COUNT_BITS = 3;
+    private static final char NO_LINK = Character.MAX_VALUE;
+    private static final Map<Integer, Table> TABLES = new HashMap<>();
+
+    private final Board goal;
+    private final int size;
+    private final int[] goalRow;
+    private final int[] goalCol;
+    private final Table rows;
+    private final Table cols;
+
+    public WalkingDistance(Board goal) {
+        checkSize(goal);
+        this.goal = goal;
+        this.size = goal.size;
+        this.goalRow = new int[goal.cells.length];
+        this.goalCol = new int[goal.cells.length];
+        for (int i = 0; i < goal.cells.length; i++) {
+            goalRow[goal.cells[i]] = i / size;
+            goalCol[goal.cells[i]] = i % size;
+        }
+        this.rows = table(size, goal.blank / size);
+        this.cols = table(size, goal.blank % size);
+    }
+
+    // Builds the tables for goal ahead of the first search
+    public static void prepare(Board goal) {
+        checkSize(goal);
+        table(goal.size, goal.blank / goal.size);
+        table(goal.size, goal.blank % goal.size);
+    }
+
+    private static void checkSize(Board goal) {
+        if (goal.size > MAX_SIZE) {
+            throw new IllegalArgumentException("Walking distance supports boards up to " + MAX_SIZE + "x" + MAX_SIZE);
+        }
+    }
+
+    @Override
+    public Board goal() {
+        return goal;
+    }
+
+    @Override
+    public int estimate(int[] cells) {
+        return estimateOf(state(cells));
+    }
+
+    // h alone does not say which table states the board is in, so this recomputes; the
+    // solvers carry the packed state instead (state/advance/estimateOf) and never call it
+    @Override
+    public int update(int[] cells, int h, int tile, int from, int to) {
+        return estimate(cells);
+    }
+
+    // Row table index in the low 16 bits, column table index in the high 16 bits
+    @Override
+    public int state(int[] cells) {
+        int[] rowCounts = new int[size * size];
+        int[] colCounts = new int[size * size];
+        int blank = -1;
+        for (int i = 0; i < cells.length; i++) {
+            int tile = cells[i];
+            if (tile == 0) {
+                blank = i;
+            } else {
+                rowCounts[(i / size) * size + goalRow[tile]]++;
+                colCounts[(i % size) * size + goalCol[tile]]++;
+            }
+        }
+        return rows.indexOf(rowCounts, blank / size) | cols.indexOf(colCounts, blank % size) << 16;
+    }
+
+    // tile slid from cell from to cell to, so the blank went the other way
+    @Override
+    public int advance(int[] cells, int state, int tile, int from, int to) {
+        int row = state & 0xFFFF;
+        int col = state >>> 16;
+        if (from / size != to / size) {
+            row = rows.next(row, from < to ? 0 : 1, goalRow[tile]);
+        } else {
+            col = cols.next(col, from < to ? 0 : 1, goalCol[tile]);
+        }
+        return row | col << 16;
+    }
+
+    @Override
+    public int estimateOf(int state) {
+        return rows.distance[state & 0xFFFF] + cols.distance[state >>> 16];
+    }
+
+    private static synchronized Table table(int size, int blankGroup) {
+        return TABLES.computeIfAbsent(size * MAX_SIZE + blankGroup, k -> new Table(size, blankGroup));
+    }
+
+    // All arrangements of one axis, numbered in breadth-first order from the goal. A key packs
+    // size * size counts of COUNT_BITS each (line-major: counts[line * size + group]) and the
+    // blank's line on top
+    static final class Table {
+        final int size;
+        final byte[] distance;
+        final char[] links; // [state][blank up = 0, down = 1][group of the tile that moves]
+        private final KeyIndex index = new KeyIndex();
+
+        Table(int size, int blankGroup) {
+            this.size = size;
+            int[] counts = new int[size * size];
+            for (int g = 0; g < size; g++) counts[g * size + g] = g == blankGroup ? size - 1 : size;
+            long start = key(counts, blankGroup);
+
+            // Every move is reversible, so breadth-first depth from the goal is the exact
+            // distance. Links are filled in as each state is expanded: one pass, no sorting
+            int fanOut = 2 * size;
+            long[] queue = new long[1024];
+            byte[] depth = new byte[1024];
+            char[] next = new char[1024 * fanOut];
+            queue[0] = start;
+            index.putIfAbsent(start, 0);
+            int count = 1;
+            for (int head = 0; head < count; head++) {
+                for (int dir = 0; dir < 2; dir++) {
+                    for (int g = 0; g < size; g++) {
+                        long key = neighbour(queue[head], dir, g);
+                        int link = NO_LINK;
+                        if (key >= 0) {
+                            link = index.putIfAbsent(key, count);
+                            if (link < 0) {
+                                if (count == NO_LINK) throw new IllegalStateException("Walking distance table too large");
+                                if (count == queue.length) {
+                                    queue = Arrays.copyOf(queue, count * 2);
+                                    depth = Arrays.copyOf(depth, count * 2);
+                                    next = Arrays.copyOf(next, count * 2 * fanOut);
+                                }
+                                queue[count] = key;
+                                depth[count] = (byte) (depth[head] + 1);
+                                link = count++;
+                            }
+                        }
+                        next[head * fanOut + dir * size + g] = (char) link;
+                    }
+                }
+            }
+            distance = Arrays.copyOf(depth, count);
+            links = Arrays.copyOf(next, count * fanOut);
+        }
+
+        int next(int state, int dir, int group) {
+            return links[(state * 2 + dir) * size + group];
+        }
+
+        int indexOf(int[] counts, int blankLine) {
+            int state = index.get(key(counts, blankLine));
+            if (state < 0) throw new IllegalArgumentException("Board does not match the walking distance goal");
+            return state;
+        }
+
+        // Key after the blank leaves its line in direction dir (0 up, 1 down) and a tile of
+        // group g takes its place, or -1 if there is no such tile
+        private long neighbour(long key, int dir, int g) {
+            int blankShift = COUNT_BITS * size * size;
+            int blank = (int) (key >>> blankShift);
+            int other = dir == 0 ? blank - 1 : blank + 1;
+            if (other < 0 || other >= size) return -1;
+            int from = COUNT_BITS * (other * size + g);
+            if ((key >>> from & ((1 << COUNT_BITS) - 1)) == 0) return -1;
+            long moved = key - (1L << from) + (1L << COUNT_BITS * (blank * size + g));
+            return moved & ((1L << blankShift) - 1) | (long) other << blankShift;
+        }
+
+        private long key(int[] counts, int blankLine) {
+            long key = blankLine;
+            for (int i = counts.length - 1; i >= 0; i--) key = key << COUNT_BITS | counts[i];
+            return key;
+        }
+    }
+
+    // Open-addressing map from key to state number. Keys are never 0: a line always holds tiles
+    private static final class KeyIndex {
+        private long[] keys = new long[1 << 10];
+        private char[] states = new char[1 << 10];
+        private int count;
+
+        int get(long key) {
+            int mask = keys.length - 1;
+            for (int i = hash(key) & mask; keys[i] != 0; i = (i + 1) & mask) {
+                if (keys[i] == key) return states[i];
+            }
+            return -1;
+        }
+
+        // State already stored for key, or -1 after storing state for it
+        int putIfAbsent(long key, int state) {
+            if (4 * (count + 1) > 3 * keys.length) grow();
+            int mask = keys.length - 1;
+            int i = hash(key) & mask;
+            while (keys[i] != 0) {
+                if (keys[i] == key) return states[i];
+                i = (i + 1) & mask;
+            }
+            keys[i] = key;
+            states[i] = (char) state;
+            count++;
+            return -1;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            char[] oldStates = states;
+            keys = new long[oldKeys.length * 2];
+            states = new char[oldKeys.length * 2];
+            int mask = keys.length - 1;
+            for (int j = 0; j < oldKeys.length; j++) {
+                if (oldKeys[j] == 0) continue;
+                int i = hash(oldKeys[j]) & mask;
+                while (keys[i] != 0) i = (i + 1) & mask;
+                keys[i] = oldKeys[j];
+                states[i] = oldStates[j];
+            }
+        }
+
+        private static int hash(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}